@@ -0,0 +1,96 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom;
+
+import java.util.Random;
+
+/**
+ * Builds synthetic Zoom API payloads for the benchmarks. The same seed always produces the same
+ * payload, so results can be compared between releases.
+ */
+public final class ZoomPayloads {
+
+  private static final String[] TIME_ZONES = {
+    "America/Chicago", "America/New_York", "America/Los_Angeles", "Europe/London", "Asia/Tokyo"
+  };
+
+  private ZoomPayloads() {}
+
+  /**
+   * @param userCount Number of users of the page
+   * @param seed Seed of the generated values
+   * @return JSON body of a GET /users page holding the given number of users
+   */
+  public static String usersPage(int userCount, long seed) {
+    Random random = new Random(seed);
+    StringBuilder json = new StringBuilder(userCount * 600);
+    json.append("{\"page_count\":334,\"page_number\":1,\"page_size\":")
+        .append(userCount)
+        .append(",\"total_records\":100000,\"next_page_token\":\"")
+        .append(Long.toHexString(random.nextLong()))
+        .append("\",\"users\":[");
+    for (int i = 0; i < userCount; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      appendUser(json, i, random);
+    }
+    return json.append("]}").toString();
+  }
+
+  /**
+   * @param code Zoom error code
+   * @return JSON body of a Zoom fault response
+   */
+  public static String fault(int code) {
+    return "{\"code\":"
+        + code
+        + ",\"message\":\"Synthetic fault "
+        + code
+        + "\",\"errors\":[{\"field\":\"email\",\"message\":\"Invalid field.\"}]}";
+  }
+
+  private static void appendUser(StringBuilder json, int index, Random random) {
+    String id = Long.toHexString(random.nextLong());
+    json.append("{\"id\":\"")
+        .append(id)
+        .append("\",\"first_name\":\"First")
+        .append(index)
+        .append("\",\"last_name\":\"Last")
+        .append(index)
+        .append("\",\"email\":\"user")
+        .append(index)
+        .append("@example.com\",\"type\":")
+        .append(1 + random.nextInt(2))
+        .append(",\"pmi\":")
+        .append(1000000000L + random.nextInt(1000000000))
+        .append(",\"timezone\":\"")
+        .append(TIME_ZONES[random.nextInt(TIME_ZONES.length)])
+        .append("\",\"verified\":1,\"dept\":\"\",\"created_at\":\"2023-05-12T10:45:15Z\"")
+        .append(",\"last_login_time\":\"2024-09-03T08:12:44Z\",\"language\":\"en-US\"")
+        .append(",\"phone_number\":\"+1 555")
+        .append(String.format("%07d", random.nextInt(10000000)))
+        .append("\",\"phone_country\":\"US\",\"status\":\"active\",\"role_id\":\"2\"")
+        .append(",\"group_ids\":[");
+    int groupCount = random.nextInt(4);
+    for (int g = 0; g < groupCount; g++) {
+      if (g > 0) {
+        json.append(',');
+      }
+      json.append("\"group").append(random.nextInt(50)).append('"');
+    }
+    json.append("],\"feature\":{\"zoom_phone\":")
+        .append(random.nextBoolean())
+        .append(",\"zoom_one_type\":16}}");
+  }
+}
@@ -0,0 +1,84 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.adapter;
+
+import com.exclamationlabs.connid.base.zoom.ZoomPayloads;
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import com.exclamationlabs.connid.base.zoom.model.response.ListUsersResponse;
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.identityconnectors.framework.common.objects.Attribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversion between Zoom users and ConnId attributes for a page of 300 users, as done by the
+ * adapter for every listed user and for every create or update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZoomUsersAdapterBenchmark {
+
+  private static final int PAGE_SIZE = 300;
+
+  private ZoomUsersAdapter adapter;
+  private List<ZoomUser> users;
+  private List<Set<Attribute>> userAttributes;
+
+  @Setup
+  public void setUp() {
+    adapter = new ZoomUsersAdapter();
+    users =
+        new ArrayList<>(
+            new Gson()
+                .fromJson(ZoomPayloads.usersPage(PAGE_SIZE, 7L), ListUsersResponse.class)
+                .getUsers());
+    userAttributes = new ArrayList<>(users.size());
+    for (ZoomUser user : users) {
+      userAttributes.add(adapter.constructAttributes(user));
+    }
+  }
+
+  @Benchmark
+  public void constructAttributes(Blackhole blackhole) {
+    for (ZoomUser user : users) {
+      blackhole.consume(adapter.constructAttributes(user));
+    }
+  }
+
+  @Benchmark
+  public void constructModel(Blackhole blackhole) {
+    for (Set<Attribute> attributes : userAttributes) {
+      blackhole.consume(
+          adapter.constructModel(
+              attributes, Collections.emptySet(), Collections.emptySet(), false));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static com.exclamationlabs.connid.base.zoom.model.response.fault.ErrorResponseCode.*;
+
+import com.exclamationlabs.connid.base.zoom.ZoomPayloads;
+import com.google.gson.GsonBuilder;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fault handling of Zoom error responses: the ignored user not found fault, seen for every lookup
+ * of a missing user, and a fault reported to MidPoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZoomFaultProcessorBenchmark {
+
+  private final GsonBuilder gsonBuilder = new GsonBuilder();
+  private HttpResponse userNotFound;
+  private HttpResponse unknownFault;
+  private String userNotFoundBody;
+
+  @Setup
+  public void setUp() {
+    userNotFoundBody = ZoomPayloads.fault(USER_NOT_FOUND);
+    userNotFound = response(HttpStatus.SC_NOT_FOUND, userNotFoundBody);
+    unknownFault = response(HttpStatus.SC_BAD_REQUEST, ZoomPayloads.fault(3412));
+  }
+
+  @Benchmark
+  public ConnectorException processIgnoredFault() {
+    try {
+      ZoomFaultProcessor.getInstance().process(userNotFound, gsonBuilder);
+      return null;
+    } catch (ConnectorException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public ConnectorException processReportedFault() {
+    try {
+      ZoomFaultProcessor.getInstance().process(unknownFault, gsonBuilder);
+      return null;
+    } catch (ConnectorException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Integer readFaultCode() {
+    return ZoomFaultProcessor.readFaultCode(userNotFoundBody);
+  }
+
+  private static HttpResponse response(int status, String body) {
+    BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+    // A StringEntity can be read again by each invocation
+    response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+    response.setHeader("Content-Type", ContentType.APPLICATION_JSON.toString());
+    return response;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.model.response;
+
+import com.exclamationlabs.connid.base.zoom.ZoomPayloads;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Binding of GET /users pages, as done by the driver for every page of a user listing. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListUsersResponseBenchmark {
+
+  @Param({"300"})
+  private int pageSize;
+
+  private String page;
+  private Gson gson;
+
+  @Setup
+  public void setUp() {
+    page = ZoomPayloads.usersPage(pageSize, 42L);
+    gson = new GsonBuilder().create();
+  }
+
+  @Benchmark
+  public ListUsersResponse bindPage() {
+    return gson.fromJson(page, ListUsersResponse.class);
+  }
+
+  /** Includes the creation of the Gson instance, as made when no instance is reused. */
+  @Benchmark
+  public ListUsersResponse bindPageWithNewGson() {
+    return new GsonBuilder().create().fromJson(page, ListUsersResponse.class);
+  }
+}
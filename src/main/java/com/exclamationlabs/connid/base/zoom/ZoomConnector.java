@@ -23,8 +23,17 @@ import com.exclamationlabs.connid.base.zoom.adapter.ZoomGroupsAdapter;
 import com.exclamationlabs.connid.base.zoom.adapter.ZoomUsersAdapter;
 import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
 import com.exclamationlabs.connid.base.zoom.driver.rest.ZoomDriver;
+import com.exclamationlabs.connid.base.zoom.driver.rest.ZoomOperationContext;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+import org.identityconnectors.framework.common.objects.Attribute;
+import org.identityconnectors.framework.common.objects.AttributeDelta;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.ResultsHandler;
+import org.identityconnectors.framework.common.objects.Uid;
 import org.identityconnectors.framework.spi.ConnectorClass;
 
 @ConnectorClass(
@@ -50,4 +59,79 @@ public class ZoomConnector extends BaseFullAccessConnector<ZoomConfiguration> {
     setDriver(new ZoomDriver());
     setAdapters(new ZoomUsersAdapter(), new ZoomGroupsAdapter());
   }
+
+  /**
+   * Runs the search with the attributes to get of the operation made available to the invocators,
+   * so that Zoom Phone data is only requested when it is returned. A query for a single object is
+   * traced as a get operation, subject to the operation call budget.
+   */
+  @Override
+  public void executeQuery(
+      ObjectClass objectClass,
+      String query,
+      ResultsHandler resultsHandler,
+      OperationOptions operationOptions) {
+    boolean search = StringUtils.isBlank(query);
+    ZoomOperationContext.begin(search ? "search" : "get", objectClass, operationOptions);
+    try {
+      super.executeQuery(objectClass, query, resultsHandler, operationOptions);
+    } finally {
+      endOperation(search ? 0 : getOperationCallBudget());
+    }
+  }
+
+  /**
+   * Write operations run in an operation context without attributes to get, since they need the
+   * full current state of the objects they change.
+   */
+  @Override
+  public Uid create(
+      ObjectClass objectClass, Set<Attribute> attributes, OperationOptions operationOptions) {
+    ZoomOperationContext.begin("create", objectClass, null);
+    try {
+      return super.create(objectClass, attributes, operationOptions);
+    } finally {
+      endOperation(getOperationCallBudget());
+    }
+  }
+
+  @Override
+  public Set<AttributeDelta> updateDelta(
+      ObjectClass objectClass,
+      Uid uid,
+      Set<AttributeDelta> modifications,
+      OperationOptions operationOptions) {
+    ZoomOperationContext.begin("update", objectClass, null);
+    try {
+      return super.updateDelta(objectClass, uid, modifications, operationOptions);
+    } finally {
+      endOperation(getOperationCallBudget());
+    }
+  }
+
+  @Override
+  public void delete(ObjectClass objectClass, Uid uid, OperationOptions operationOptions) {
+    ZoomOperationContext.begin("delete", objectClass, null);
+    try {
+      super.delete(objectClass, uid, operationOptions);
+    } finally {
+      endOperation(getOperationCallBudget());
+    }
+  }
+
+  /** @return Number of Zoom API calls an operation may make before it is reported */
+  private int getOperationCallBudget() {
+    return ((ZoomDriver) getDriver()).getOperationCallBudget();
+  }
+
+  /**
+   * Ends the operation of the current thread and logs the Zoom API calls it made. An operation over
+   * its budget is counted by the API metrics of the driver.
+   */
+  private void endOperation(int callBudget) {
+    ZoomOperationContext context = ZoomOperationContext.end();
+    if (context != null && context.logTrace(callBudget)) {
+      ((ZoomDriver) getDriver()).getApiMetrics().recordOverBudgetOperation();
+    }
+  }
 }
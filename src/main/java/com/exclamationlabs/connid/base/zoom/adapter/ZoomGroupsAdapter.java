@@ -15,7 +15,7 @@ package com.exclamationlabs.connid.base.zoom.adapter;
 
 import static com.exclamationlabs.connid.base.connector.attribute.ConnectorAttributeDataType.*;
 import static com.exclamationlabs.connid.base.zoom.attribute.ZoomGroupAttribute.*;
-import static org.identityconnectors.framework.common.objects.AttributeInfo.Flags.NOT_UPDATEABLE;
+import static org.identityconnectors.framework.common.objects.AttributeInfo.Flags.*;
 
 import com.exclamationlabs.connid.base.connector.adapter.AdapterValueTypeConverter;
 import com.exclamationlabs.connid.base.connector.adapter.BaseAdapter;
@@ -44,6 +44,9 @@ public class ZoomGroupsAdapter extends BaseAdapter<ZoomGroup, ZoomConfiguration>
     result.add(new ConnectorAttribute(Uid.NAME, GROUP_ID.name(), STRING, NOT_UPDATEABLE));
     result.add(new ConnectorAttribute(Name.NAME, GROUP_NAME.name(), STRING, NOT_UPDATEABLE));
     result.add(new ConnectorAttribute(TOTAL_MEMBERS.name(), INTEGER, NOT_UPDATEABLE));
+    result.add(
+        new ConnectorAttribute(
+            MEMBER_IDS.name(), STRING, MULTIVALUED, NOT_UPDATEABLE, NOT_RETURNED_BY_DEFAULT));
     return result;
   }
 
@@ -67,6 +70,9 @@ public class ZoomGroupsAdapter extends BaseAdapter<ZoomGroup, ZoomConfiguration>
   protected Set<Attribute> constructAttributes(ZoomGroup group) {
     Set<Attribute> attributes = new HashSet<>();
     attributes.add(AttributeBuilder.build(TOTAL_MEMBERS.name(), group.getTotalMembers()));
+    if (group.getMemberIds() != null) {
+      attributes.add(AttributeBuilder.build(MEMBER_IDS.name(), group.getMemberIds()));
+    }
 
     return attributes;
   }
@@ -19,5 +19,6 @@ package com.exclamationlabs.connid.base.zoom.attribute;
 public enum ZoomGroupAttribute {
   GROUP_ID,
   GROUP_NAME,
-  TOTAL_MEMBERS
+  TOTAL_MEMBERS,
+  MEMBER_IDS
 }
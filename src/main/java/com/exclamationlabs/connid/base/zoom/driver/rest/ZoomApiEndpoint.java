@@ -0,0 +1,97 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Identifies the Zoom API endpoint of a request by its method and uri template, in which the ids
+ * and email addresses of the path are replaced by {id}. For instance GET /v2/users/abc@x.com
+ * becomes "GET /users/{id}".
+ */
+public final class ZoomApiEndpoint {
+
+  /** Fixed path segments of the Zoom API endpoints used by the connector. */
+  private static final Set<String> RESOURCE_SEGMENTS =
+      new HashSet<>(
+          Arrays.asList(
+              "users",
+              "groups",
+              "members",
+              "phone",
+              "sites",
+              "calling_plans",
+              "phone_numbers",
+              "status",
+              "email",
+              "token",
+              "password",
+              "settings",
+              "batch"));
+
+  private static final String ID_SEGMENT = "{id}";
+
+  private ZoomApiEndpoint() {}
+
+  /**
+   * @param method Http method of the request
+   * @param uri Relative or absolute uri of the request
+   * @return Endpoint template of the request
+   */
+  public static String getTemplate(String method, String uri) {
+    String path = uri == null ? "" : uri;
+    int schemeEnd = path.indexOf("://");
+    if (schemeEnd >= 0) {
+      int pathStart = path.indexOf('/', schemeEnd + 3);
+      path = pathStart < 0 ? "" : path.substring(pathStart);
+    }
+    int queryStart = path.indexOf('?');
+    if (queryStart >= 0) {
+      path = path.substring(0, queryStart);
+    }
+    if (path.startsWith("/v2/")) {
+      path = path.substring(3);
+    }
+    StringBuilder template = new StringBuilder(method).append(' ');
+    for (String segment : path.split("/")) {
+      if (!segment.isEmpty()) {
+        template.append('/');
+        template.append(RESOURCE_SEGMENTS.contains(segment) ? segment : ID_SEGMENT);
+      }
+    }
+    if (template.charAt(template.length() - 1) == ' ') {
+      template.append('/');
+    }
+    return template.toString();
+  }
+
+  /**
+   * @param template Endpoint template returned by {@link #getTemplate(String, String)}
+   * @return Rate limit category documented by Zoom for the endpoint. Batch requests are Heavy,
+   *     listings and group membership changes are Medium and single record requests are Light.
+   */
+  public static ZoomRateLimitCategory getDefaultCategory(String template) {
+    if (template.endsWith("/batch")) {
+      return ZoomRateLimitCategory.HEAVY;
+    }
+    if (template.endsWith("/members") || template.contains("/members/")) {
+      return ZoomRateLimitCategory.MEDIUM;
+    }
+    if (template.startsWith("GET ") && !template.endsWith(ID_SEGMENT)) {
+      return ZoomRateLimitCategory.MEDIUM;
+    }
+    return ZoomRateLimitCategory.LIGHT;
+  }
+}
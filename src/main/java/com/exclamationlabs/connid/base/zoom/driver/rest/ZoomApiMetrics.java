@@ -0,0 +1,380 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Counts the Zoom API requests of a driver per endpoint template, with a latency histogram, the
+ * bytes read, the status codes, the retries and the time spent waiting for the rate limiter. The
+ * metrics are published as a JMX MXBean and logged as a summary once per configured interval, and
+ * when the driver is closed. The MXBean is named after the account id and service url of the
+ * driver, with an instance key numbering the further drivers of the same account that are open at
+ * the same time.
+ */
+public class ZoomApiMetrics
+    implements HttpRequestInterceptor, HttpResponseInterceptor, ZoomApiMetricsMXBean {
+
+  static final String START_ATTRIBUTE = "zoom.requestStart";
+
+  private static final String OBJECT_NAME = "com.exclamationlabs.connid.zoom:type=ZoomApiMetrics";
+
+  /** Upper bounds in milliseconds of the latency histogram buckets. */
+  private static final long[] LATENCY_BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+  private final ZoomDriver driver;
+  private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+  private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+  private final LongAdder overBudgetOperations = new LongAdder();
+  private final AtomicLong loggedAt = new AtomicLong(System.currentTimeMillis());
+
+  private ObjectName objectName;
+
+  public ZoomApiMetrics(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /** Publishes the metrics through the platform MBean server. */
+  public synchronized void register() {
+    if (objectName != null) {
+      return;
+    }
+    ZoomConfiguration configuration = driver.getConfiguration();
+    String accountId = configuration == null ? null : configuration.getAccountId();
+    String serviceUrl = configuration == null ? null : configuration.getServiceUrl();
+    String accountName =
+        OBJECT_NAME
+            + ",account="
+            + ObjectName.quote(StringUtils.defaultString(accountId))
+            + ",service="
+            + ObjectName.quote(StringUtils.defaultString(serviceUrl));
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      // The lowest instance number not taken by another open driver of the account is used
+      for (int instance = 1; objectName == null; instance++) {
+        ObjectName name =
+            new ObjectName(instance == 1 ? accountName : accountName + ",instance=" + instance);
+        try {
+          server.registerMBean(this, name);
+          objectName = name;
+        } catch (InstanceAlreadyExistsException e) {
+          // taken by another driver of the same account
+        }
+      }
+    } catch (JMException | RuntimeException e) {
+      Logger.warn(this, "Unable to publish Zoom API metrics through JMX", e);
+    }
+  }
+
+  /** Logs the summary of the metrics and withdraws them from JMX. */
+  public synchronized void unregister() {
+    logSummary();
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (JMException | RuntimeException e) {
+        Logger.warn(this, "Unable to withdraw Zoom API metrics from JMX", e);
+      }
+      objectName = null;
+    }
+  }
+
+  @Override
+  public void process(HttpRequest request, HttpContext context) {
+    context.setAttribute(START_ATTRIBUTE, System.nanoTime());
+  }
+
+  @Override
+  public void process(HttpResponse response, HttpContext context) {
+    Long start = (Long) context.getAttribute(START_ATTRIBUTE);
+    String template = (String) context.getAttribute(ZoomRateLimiter.TEMPLATE_ATTRIBUTE);
+    if (start == null || template == null) {
+      return;
+    }
+    long nanos = System.nanoTime() - start;
+    int status = response.getStatusLine().getStatusCode();
+    EndpointMetrics metrics = getEndpoint(template);
+    metrics.record(nanos, status);
+    statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+    LongAdder operationBytesRead = ZoomOperationContext.recordCall(template, status, nanos);
+    HttpEntity entity = response.getEntity();
+    if (entity != null) {
+      response.setEntity(new CountingEntity(entity, metrics.bytesRead, operationBytesRead));
+    }
+    logSummaryIfDue();
+  }
+
+  /** Records that a request of the endpoint is sent again. */
+  void recordRetry(String template) {
+    if (template != null) {
+      getEndpoint(template).retries.increment();
+    }
+  }
+
+  /** Records the time a request of the endpoint waited for the rate limiter. */
+  void recordRateLimitWait(String template, long nanos) {
+    if (template != null && nanos > 0) {
+      getEndpoint(template).rateLimitWaitNanos.add(nanos);
+      ZoomOperationContext.recordRateLimitWait(nanos);
+    }
+  }
+
+  /** Records that a connector operation made more calls than the operation call budget. */
+  public void recordOverBudgetOperation() {
+    overBudgetOperations.increment();
+  }
+
+  @Override
+  public long getRequestCount() {
+    return endpoints.values().stream().mapToLong(e -> e.count.sum()).sum();
+  }
+
+  @Override
+  public long getThrottledCount() {
+    LongAdder throttled = statusCounts.get(429);
+    return throttled == null ? 0L : throttled.sum();
+  }
+
+  @Override
+  public long getRetryCount() {
+    return endpoints.values().stream().mapToLong(e -> e.retries.sum()).sum();
+  }
+
+  @Override
+  public long getBytesRead() {
+    return endpoints.values().stream().mapToLong(e -> e.bytesRead.sum()).sum();
+  }
+
+  @Override
+  public long getRateLimitWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(
+        endpoints.values().stream().mapToLong(e -> e.rateLimitWaitNanos.sum()).sum());
+  }
+
+  @Override
+  public long getOverBudgetOperationCount() {
+    return overBudgetOperations.sum();
+  }
+
+  @Override
+  public Map<String, Long> getRequestCountByEndpoint() {
+    Map<String, Long> counts = new TreeMap<>();
+    endpoints.forEach((template, metrics) -> counts.put(template, metrics.count.sum()));
+    return counts;
+  }
+
+  @Override
+  public Map<String, Long> getAverageMillisByEndpoint() {
+    Map<String, Long> averages = new TreeMap<>();
+    endpoints.forEach((template, metrics) -> averages.put(template, metrics.getAverageMillis()));
+    return averages;
+  }
+
+  @Override
+  public Map<String, Long> getStatusCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    statusCounts.forEach((status, count) -> counts.put(String.valueOf(status), count.sum()));
+    return counts;
+  }
+
+  @Override
+  public String getSummary() {
+    List<Map.Entry<String, EndpointMetrics>> busiest = new ArrayList<>(endpoints.entrySet());
+    busiest.sort(
+        Comparator.comparingLong(
+                (Map.Entry<String, EndpointMetrics> entry) -> entry.getValue().count.sum())
+            .reversed());
+    StringBuilder summary =
+        new StringBuilder(
+            String.format(
+                "Zoom API requests: %d, throttled: %d, retried: %d, bytes read: %d, rate limit wait: %d ms, statuses: %s",
+                getRequestCount(),
+                getThrottledCount(),
+                getRetryCount(),
+                getBytesRead(),
+                getRateLimitWaitMillis(),
+                getStatusCounts()));
+    for (Map.Entry<String, EndpointMetrics> entry : busiest) {
+      summary.append(System.lineSeparator()).append(entry.getKey()).append(": ");
+      entry.getValue().appendSummary(summary);
+    }
+    return summary.toString();
+  }
+
+  @Override
+  public void reset() {
+    endpoints.clear();
+    statusCounts.clear();
+    overBudgetOperations.reset();
+  }
+
+  private EndpointMetrics getEndpoint(String template) {
+    return endpoints.computeIfAbsent(template, key -> new EndpointMetrics());
+  }
+
+  private void logSummaryIfDue() {
+    long interval = driver.getMetricsLogIntervalMillis();
+    long last = loggedAt.get();
+    long now = System.currentTimeMillis();
+    if (interval > 0 && now - last >= interval && loggedAt.compareAndSet(last, now)) {
+      logSummary();
+    }
+  }
+
+  private void logSummary() {
+    if (!endpoints.isEmpty()) {
+      Logger.info(this, getSummary());
+    }
+  }
+
+  /** Metrics of one endpoint template. */
+  private static final class EndpointMetrics {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder[] latencyBuckets = new LongAdder[LATENCY_BOUNDS.length + 1];
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder rateLimitWaitNanos = new LongAdder();
+
+    private EndpointMetrics() {
+      for (int i = 0; i < latencyBuckets.length; i++) {
+        latencyBuckets[i] = new LongAdder();
+      }
+    }
+
+    private void record(long nanos, int status) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+      long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      int bucket = 0;
+      while (bucket < LATENCY_BOUNDS.length && millis > LATENCY_BOUNDS[bucket]) {
+        bucket++;
+      }
+      latencyBuckets[bucket].increment();
+      if (status >= 400) {
+        errors.increment();
+      }
+    }
+
+    private long getAverageMillis() {
+      long requests = count.sum();
+      return requests == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / requests);
+    }
+
+    /** @return Upper bound of the histogram bucket holding the given percentile, or -1 if above */
+    private long getPercentileBoundMillis(double percentile) {
+      long threshold = (long) Math.ceil(count.sum() * percentile);
+      long seen = 0;
+      for (int i = 0; i < LATENCY_BOUNDS.length; i++) {
+        seen += latencyBuckets[i].sum();
+        if (seen >= threshold) {
+          return LATENCY_BOUNDS[i];
+        }
+      }
+      return -1L;
+    }
+
+    private void appendSummary(StringBuilder summary) {
+      long p95 = getPercentileBoundMillis(0.95);
+      summary
+          .append(count.sum())
+          .append(" requests, avg ")
+          .append(getAverageMillis())
+          .append(" ms, p95 ")
+          .append(p95 < 0 ? "> " + LATENCY_BOUNDS[LATENCY_BOUNDS.length - 1] : "<= " + p95)
+          .append(" ms, max ")
+          .append(TimeUnit.NANOSECONDS.toMillis(maxNanos.get()))
+          .append(" ms, errors ")
+          .append(errors.sum())
+          .append(", retries ")
+          .append(retries.sum())
+          .append(", bytes ")
+          .append(bytesRead.sum())
+          .append(", rate limit wait ")
+          .append(TimeUnit.NANOSECONDS.toMillis(rateLimitWaitNanos.sum()))
+          .append(" ms");
+    }
+  }
+
+  /** Response entity counting the bytes read from its content, per endpoint and per operation. */
+  private static final class CountingEntity extends HttpEntityWrapper {
+    private final LongAdder bytesRead;
+    private final LongAdder operationBytesRead;
+
+    private CountingEntity(
+        HttpEntity entity, LongAdder bytesReadInput, LongAdder operationBytesReadInput) {
+      super(entity);
+      bytesRead = bytesReadInput;
+      operationBytesRead = operationBytesReadInput;
+    }
+
+    private void count(long bytes) {
+      bytesRead.add(bytes);
+      if (operationBytesRead != null) {
+        operationBytesRead.add(bytes);
+      }
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+      return new FilterInputStream(super.getContent()) {
+        @Override
+        public int read() throws IOException {
+          int read = super.read();
+          if (read >= 0) {
+            count(1);
+          }
+          return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+          int read = super.read(buffer, offset, length);
+          if (read > 0) {
+            count(read);
+          }
+          return read;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import java.util.Map;
+
+/** Zoom API request metrics of a connector instance, as published through JMX. */
+public interface ZoomApiMetricsMXBean {
+
+  /** @return Number of responses received from Zoom, retried attempts included */
+  long getRequestCount();
+
+  /** @return Number of 429 responses received from Zoom */
+  long getThrottledCount();
+
+  /** @return Number of requests sent again by the retry strategy */
+  long getRetryCount();
+
+  /** @return Number of response body bytes read */
+  long getBytesRead();
+
+  /** @return Number of milliseconds spent waiting for the rate limiter */
+  long getRateLimitWaitMillis();
+
+  /** @return Number of connector operations that made more Zoom API calls than their budget */
+  long getOverBudgetOperationCount();
+
+  /** @return Number of responses per endpoint template, such as "GET /users/{id}" */
+  Map<String, Long> getRequestCountByEndpoint();
+
+  /** @return Average response time in milliseconds per endpoint template */
+  Map<String, Long> getAverageMillisByEndpoint();
+
+  /** @return Number of responses per http status code */
+  Map<String, Long> getStatusCounts();
+
+  /** @return One line per endpoint template, busiest endpoints first */
+  String getSummary();
+
+  /** Clears all metrics. */
+  void reset();
+}
@@ -0,0 +1,226 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+/**
+ * Collects items submitted by concurrent operations of a driver and sends them to Zoom in batches.
+ * An item submitted while no batch is being sent is sent at once by its submitter, so a single
+ * worker never waits. Items submitted while a batch is being sent are collected, and sent together
+ * as soon as that batch has been sent, once the flush window opened by the first of them has
+ * elapsed, or when the batch is full by the thread that filled it, whichever comes first. The
+ * result of each item is delivered to its own future, so failures are reported to the operation
+ * that submitted the item. A batch sent by a flush thread runs with the {@link
+ * ZoomOperationContext} of its first item, so that its request is recorded by the trace of that
+ * operation.
+ *
+ * <p>The queue belongs to a driver, whose flush executor sends the collected batches. Once that
+ * executor is shut down, the items left waiting are sent by the thread that finds it closed.
+ *
+ * @param <I> Type of the batched items
+ * @param <R> Type of the result of each item
+ */
+public class ZoomBatchQueue<I, R> {
+
+  private final int batchSize;
+  private final long windowMillis;
+  private final ScheduledExecutorService flushExecutor;
+  private final Function<List<I>, List<R>> sender;
+
+  private List<Pending<I, R>> pending = new ArrayList<>();
+  private long generation = 0L;
+  private boolean windowOpen = false;
+  private int sending = 0;
+
+  /**
+   * @param maxBatchSize Largest number of items sent together
+   * @param flushWindowMillis Longest number of milliseconds an item waits for a batch being sent
+   *     before it is sent in a batch of its own, 0 to send each item immediately
+   * @param flushExecutorInput Executor of the driver sending the batches collected while another
+   *     batch was being sent
+   * @param batchSender Sends a batch of items to Zoom and returns the result of each item, in the
+   *     order of the items
+   */
+  public ZoomBatchQueue(
+      int maxBatchSize,
+      long flushWindowMillis,
+      ScheduledExecutorService flushExecutorInput,
+      Function<List<I>, List<R>> batchSender) {
+    batchSize = Math.max(maxBatchSize, 1);
+    windowMillis = Math.max(flushWindowMillis, 0L);
+    flushExecutor = flushExecutorInput;
+    sender = batchSender;
+  }
+
+  /**
+   * Adds an item to the next batch and waits until that batch has been sent.
+   *
+   * @param item Item to send
+   * @return Result of the item
+   * @throws ConnectorException if the batch of the item could not be sent
+   */
+  public R submit(I item) throws ConnectorException {
+    return await(enqueue(item));
+  }
+
+  /**
+   * Adds an item to the next batch without waiting for it to be sent, so that a caller may submit
+   * items to several queues before waiting for all of them with {@link #await(CompletableFuture)}.
+   *
+   * @param item Item to send
+   * @return Future result of the item
+   */
+  public CompletableFuture<R> enqueue(I item) {
+    Pending<I, R> mine = new Pending<>(item, ZoomOperationContext.current());
+    List<Pending<I, R>> batch = null;
+    synchronized (this) {
+      pending.add(mine);
+      if (pending.size() >= batchSize || windowMillis == 0L || sending == 0) {
+        batch = drain();
+      } else if (!windowOpen) {
+        long flushedGeneration = generation;
+        try {
+          flushExecutor.schedule(
+              ZoomOperationContext.propagate(mine.context, () -> flushWindow(flushedGeneration)),
+              windowMillis,
+              TimeUnit.MILLISECONDS);
+          windowOpen = true;
+        } catch (RejectedExecutionException e) {
+          // the driver is closing, nothing would flush the window
+          batch = drain();
+        }
+      }
+    }
+    if (batch != null) {
+      sendBatch(batch);
+    }
+    return mine.result;
+  }
+
+  /**
+   * Waits for the result of an item.
+   *
+   * @param result Future returned by {@link #enqueue(Object)}
+   * @return Result of the item
+   * @throws ConnectorException if the batch of the item could not be sent
+   */
+  public static <R> R await(CompletableFuture<R> result) throws ConnectorException {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConnectorException("Interrupted while waiting for a Zoom batch request", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ConnectorException) {
+        throw (ConnectorException) e.getCause();
+      }
+      throw new ConnectorException("Zoom batch request failed", e.getCause());
+    }
+  }
+
+  /**
+   * @return true if no item is waiting and no batch is being sent, so that the queue may be dropped
+   */
+  public synchronized boolean isIdle() {
+    return pending.isEmpty() && sending == 0;
+  }
+
+  private void flushWindow(long flushedGeneration) {
+    List<Pending<I, R>> batch = null;
+    synchronized (this) {
+      if (generation == flushedGeneration && !pending.isEmpty()) {
+        batch = drain();
+      }
+    }
+    if (batch != null) {
+      sendBatch(batch);
+    }
+  }
+
+  /**
+   * Sends a drained batch, then hands the items collected meanwhile to the flush executor so that
+   * they are not left waiting for the end of their window.
+   */
+  private void sendBatch(List<Pending<I, R>> batch) {
+    try {
+      send(batch);
+    } finally {
+      List<Pending<I, R>> next = null;
+      synchronized (this) {
+        sending--;
+        if (sending == 0 && !pending.isEmpty()) {
+          next = drain();
+        }
+      }
+      if (next != null) {
+        List<Pending<I, R>> collected = next;
+        try {
+          flushExecutor.execute(
+              ZoomOperationContext.propagate(collected.get(0).context, () -> sendBatch(collected)));
+        } catch (RejectedExecutionException e) {
+          // the driver is closing, the collected items are sent by this thread
+          sendBatch(collected);
+        }
+      }
+    }
+  }
+
+  private List<Pending<I, R>> drain() {
+    List<Pending<I, R>> batch = pending;
+    pending = new ArrayList<>();
+    generation++;
+    windowOpen = false;
+    sending++;
+    return batch;
+  }
+
+  private void send(List<Pending<I, R>> batch) {
+    List<I> items = new ArrayList<>(batch.size());
+    for (Pending<I, R> item : batch) {
+      items.add(item.item);
+    }
+    try {
+      List<R> results = sender.apply(items);
+      for (int index = 0; index < batch.size(); index++) {
+        batch
+            .get(index)
+            .result
+            .complete(results != null && index < results.size() ? results.get(index) : null);
+      }
+    } catch (RuntimeException e) {
+      for (Pending<I, R> item : batch) {
+        item.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static final class Pending<I, R> {
+    private final I item;
+    private final ZoomOperationContext context;
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+
+    private Pending(I pendingItem, ZoomOperationContext operationContext) {
+      item = pendingItem;
+      context = operationContext;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import com.exclamationlabs.connid.base.zoom.model.response.ListUsersResponse;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+/**
+ * Lists the users of several statuses concurrently, one scan per status on the driver's user scan
+ * executor, and returns their pages in the order they arrive. Each status scan may run at most a
+ * few pages ahead of the caller, and stops once the caller closes the pages. The caller and the
+ * scans each give up after waiting ten minutes for the other side to take or hand off a page.
+ */
+public class ZoomConcurrentUserPages implements Iterator<Collection<ZoomUser>>, AutoCloseable {
+
+  private static final long PAGE_HAND_OFF_TIMEOUT_MINUTES = 10;
+  private static final long PAGE_HAND_OFF_POLL_MILLIS = 500;
+  private static final Object END_OF_STATUS = new Object();
+
+  private final BlockingQueue<Object> pages;
+  private int runningScans;
+  private Collection<ZoomUser> nextPage;
+  private volatile boolean abandoned = false;
+
+  /**
+   * @param driver Driver used to execute the page requests
+   * @param statuses Zoom user statuses to list
+   * @param pageSize Number of users requested per page
+   * @param pagesAhead Number of pages each status scan may read ahead of the caller
+   * @param pageCompletion Applied to the users of each page, by the scan thread, before the page is
+   *     handed to the caller
+   */
+  public ZoomConcurrentUserPages(
+      ZoomDriver driver,
+      List<String> statuses,
+      int pageSize,
+      int pagesAhead,
+      Consumer<Collection<ZoomUser>> pageCompletion) {
+    runningScans = statuses.size();
+    pages = new ArrayBlockingQueue<>(statuses.size() * (Math.max(pagesAhead, 1) + 1));
+    Executor executor = driver.getUserScanExecutor();
+    for (String status : statuses) {
+      executor.execute(
+          ZoomOperationContext.propagate(() -> scan(driver, status, pageSize, pageCompletion)));
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (nextPage == null && runningScans > 0 && !abandoned) {
+      Object item;
+      try {
+        item = pages.poll(PAGE_HAND_OFF_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        abandoned = true;
+        Thread.currentThread().interrupt();
+        throw new ConnectorException("Interrupted while listing Zoom users", e);
+      }
+      if (item == null) {
+        // a status scan stopped handing off pages, for instance because its thread was lost
+        abandoned = true;
+        throw new ConnectorException(
+            String.format(
+                "No page of Zoom users received within %d minutes", PAGE_HAND_OFF_TIMEOUT_MINUTES));
+      }
+      if (item == END_OF_STATUS) {
+        runningScans--;
+      } else if (item instanceof RuntimeException) {
+        abandoned = true;
+        throw (RuntimeException) item;
+      } else {
+        @SuppressWarnings("unchecked")
+        Collection<ZoomUser> page = (Collection<ZoomUser>) item;
+        nextPage = page;
+      }
+    }
+    return nextPage != null;
+  }
+
+  @Override
+  public Collection<ZoomUser> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Collection<ZoomUser> page = nextPage;
+    nextPage = null;
+    return page;
+  }
+
+  /**
+   * Stops the status scans, whose pages are no longer read. Called when the caller stops iterating
+   * before the last page, or when the operation ends.
+   */
+  @Override
+  public void close() {
+    abandoned = true;
+    pages.clear();
+  }
+
+  private void scan(
+      ZoomDriver driver,
+      String status,
+      int pageSize,
+      Consumer<Collection<ZoomUser>> pageCompletion) {
+    try {
+      ZoomPageIterator<ListUsersResponse> statusPages =
+          new ZoomPageIterator<>(
+              driver, ListUsersResponse.class, "/users?status=" + status, pageSize);
+      while (!abandoned && statusPages.hasNext()) {
+        ListUsersResponse page = statusPages.next();
+        if (page != null && page.getUsers() != null && !page.getUsers().isEmpty()) {
+          pageCompletion.accept(page.getUsers());
+          handOff(page.getUsers());
+        }
+      }
+      handOff(END_OF_STATUS);
+    } catch (RuntimeException e) {
+      handOff(e);
+    }
+  }
+
+  private void handOff(Object item) {
+    long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(PAGE_HAND_OFF_TIMEOUT_MINUTES);
+    try {
+      while (!abandoned) {
+        if (pages.offer(item, PAGE_HAND_OFF_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+          return;
+        }
+        if (System.nanoTime() - deadline > 0) {
+          // the caller stopped reading pages without closing them
+          abandoned = true;
+        }
+      }
+    } catch (InterruptedException e) {
+      abandoned = true;
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -16,19 +16,309 @@ package com.exclamationlabs.connid.base.zoom.driver.rest;
 import com.exclamationlabs.connid.base.connector.driver.rest.BaseRestDriver;
 import com.exclamationlabs.connid.base.connector.driver.rest.RestFaultProcessor;
 import com.exclamationlabs.connid.base.connector.driver.rest.RestRequest;
+import com.exclamationlabs.connid.base.connector.driver.rest.RestResponseData;
 import com.exclamationlabs.connid.base.connector.logging.Logger;
 import com.exclamationlabs.connid.base.connector.model.IdentityModel;
 import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
 import com.exclamationlabs.connid.base.zoom.model.ZoomGroup;
 import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.HttpClient;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 
 public class ZoomDriver extends BaseRestDriver<ZoomConfiguration> {
 
+  private static final int DEFAULT_CACHE_TIME_TO_LIVE = 300;
+  private static final int DEFAULT_USER_PAGE_PREFETCH_DEPTH = 1;
+  private static final int DEFAULT_LIGHT_REQUESTS_PER_SECOND = 30;
+  private static final int DEFAULT_MEDIUM_REQUESTS_PER_SECOND = 20;
+  private static final int DEFAULT_HEAVY_REQUESTS_PER_SECOND = 10;
+  private static final int DEFAULT_MAX_RETRIES = 2;
+  private static final int DEFAULT_OPERATION_RETRY_BUDGET = 100;
+  private static final int DEFAULT_PHONE_ENRICHMENT_CONCURRENCY = 4;
+  private static final int DEFAULT_METRICS_LOG_INTERVAL = 300;
+  private static final int DEFAULT_OPERATION_CALL_BUDGET = 20;
+  private static final int MAX_USER_SCAN_THREADS = 6;
+  private static final int BATCH_FLUSH_THREADS = 2;
+
+  private final ZoomPhoneSiteCache phoneSiteCache;
+  private final ZoomPagePrefetcher pagePrefetcher;
+  private final ZoomPhoneUserIndex phoneUserIndex;
+  private final ZoomRateLimiter rateLimiter;
+  private final ZoomRetryStrategy retryStrategy;
+  private final ZoomHttpClientFactory httpClientFactory;
+  private final ZoomPhoneBatchProvisioner phoneBatchProvisioner;
+  private final ZoomGroupMemberBatcher groupMemberBatcher;
+  private final ZoomGroupMembershipIndex groupMembershipIndex;
+  private final ZoomGroupNameIndex groupNameIndex;
+  private final ZoomUserEmailIndex userEmailIndex;
+  private final ZoomEnrichmentExecutor enrichmentExecutor;
+  private final ZoomApiMetrics apiMetrics;
+  private ThreadPoolExecutor userScanExecutor;
+  private ScheduledThreadPoolExecutor batchFlushExecutor;
+
   public ZoomDriver() {
     super();
     addInvocator(ZoomUser.class, new ZoomUsersInvocator());
     addInvocator(ZoomGroup.class, new ZoomGroupsInvocator());
+    phoneSiteCache = new ZoomPhoneSiteCache(this);
+    pagePrefetcher = new ZoomPagePrefetcher(this);
+    phoneUserIndex = new ZoomPhoneUserIndex(this);
+    rateLimiter = new ZoomRateLimiter(this);
+    retryStrategy = new ZoomRetryStrategy(this);
+    httpClientFactory = new ZoomHttpClientFactory(this);
+    phoneBatchProvisioner = new ZoomPhoneBatchProvisioner(this);
+    groupMemberBatcher = new ZoomGroupMemberBatcher(this);
+    groupMembershipIndex = new ZoomGroupMembershipIndex(this);
+    groupNameIndex = new ZoomGroupNameIndex(this);
+    userEmailIndex = new ZoomUserEmailIndex(this);
+    enrichmentExecutor = new ZoomEnrichmentExecutor(this);
+    apiMetrics = new ZoomApiMetrics(this);
+  }
+
+  public ZoomPhoneSiteCache getPhoneSiteCache() {
+    return phoneSiteCache;
+  }
+
+  public ZoomPhoneUserIndex getPhoneUserIndex() {
+    return phoneUserIndex;
+  }
+
+  public ZoomPagePrefetcher getPagePrefetcher() {
+    return pagePrefetcher;
+  }
+
+  /**
+   * @return Number of user list pages to request ahead of the page being processed, as given by the
+   *     User Page Prefetch Depth configuration setting.
+   */
+  public int getUserPagePrefetchDepth() {
+    Integer depth = null;
+    if (getConfiguration() != null) {
+      depth = getConfiguration().getUserPagePrefetchDepth();
+    }
+    return depth == null ? DEFAULT_USER_PAGE_PREFETCH_DEPTH : Math.max(depth, 0);
+  }
+
+  /**
+   * @return Number of milliseconds that data cached by this driver remains valid, as given by the
+   *     Cache Time To Live configuration setting.
+   */
+  public long getCacheTimeToLiveMillis() {
+    Integer seconds = null;
+    if (getConfiguration() != null) {
+      seconds = getConfiguration().getCacheTimeToLive();
+    }
+    return TimeUnit.SECONDS.toMillis(seconds == null ? DEFAULT_CACHE_TIME_TO_LIVE : seconds);
+  }
+
+  public ZoomPhoneBatchProvisioner getPhoneBatchProvisioner() {
+    return phoneBatchProvisioner;
+  }
+
+  public ZoomGroupMemberBatcher getGroupMemberBatcher() {
+    return groupMemberBatcher;
+  }
+
+  public ZoomGroupMembershipIndex getGroupMembershipIndex() {
+    return groupMembershipIndex;
+  }
+
+  public ZoomGroupNameIndex getGroupNameIndex() {
+    return groupNameIndex;
+  }
+
+  public ZoomUserEmailIndex getUserEmailIndex() {
+    return userEmailIndex;
+  }
+
+  public ZoomEnrichmentExecutor getEnrichmentExecutor() {
+    return enrichmentExecutor;
+  }
+
+  /**
+   * @return Executor running the status scans of the concurrent user listings of this driver. Its
+   *     threads are bounded and shared by all searches, the scans of a search waiting for a free
+   *     thread when all are busy.
+   */
+  public synchronized Executor getUserScanExecutor() {
+    if (userScanExecutor == null) {
+      userScanExecutor =
+          new ThreadPoolExecutor(
+              MAX_USER_SCAN_THREADS,
+              MAX_USER_SCAN_THREADS,
+              60L,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "zoom-user-scan");
+                thread.setDaemon(true);
+                return thread;
+              });
+      userScanExecutor.allowCoreThreadTimeOut(true);
+    }
+    return userScanExecutor;
+  }
+
+  /**
+   * @return Executor sending the Zoom batch requests of this driver that were collected while
+   *     another batch was being sent. Batches already scheduled are still sent once the driver is
+   *     closed.
+   */
+  public synchronized ScheduledExecutorService getBatchFlushExecutor() {
+    if (batchFlushExecutor == null) {
+      batchFlushExecutor =
+          new ScheduledThreadPoolExecutor(
+              BATCH_FLUSH_THREADS,
+              runnable -> {
+                Thread thread = new Thread(runnable, "zoom-batch-flush");
+                thread.setDaemon(true);
+                return thread;
+              });
+      batchFlushExecutor.setKeepAliveTime(60L, TimeUnit.SECONDS);
+      batchFlushExecutor.allowCoreThreadTimeOut(true);
+    }
+    return batchFlushExecutor;
+  }
+
+  public ZoomApiMetrics getApiMetrics() {
+    return apiMetrics;
+  }
+
+  public ZoomRetryStrategy getRetryStrategy() {
+    return retryStrategy;
+  }
+
+  /**
+   * @return Maximum number of times a request failing with a transient status is retried, as given
+   *     by the IO Error Retries configuration setting.
+   */
+  public int getMaxRetries() {
+    Integer retries = null;
+    if (getConfiguration() != null) {
+      retries = getConfiguration().getIoErrorRetries();
+    }
+    return retries == null ? DEFAULT_MAX_RETRIES : Math.max(retries, 0);
+  }
+
+  /**
+   * @return Maximum number of retries made during a single connector operation, as given by the
+   *     Operation Retry Budget configuration setting.
+   */
+  public int getOperationRetryBudget() {
+    Integer budget = null;
+    if (getConfiguration() != null) {
+      budget = getConfiguration().getOperationRetryBudget();
+    }
+    return budget == null ? DEFAULT_OPERATION_RETRY_BUDGET : Math.max(budget, 0);
+  }
+
+  /**
+   * @return Number of users of a listing page whose Zoom Phone profile is read concurrently, as
+   *     given by the Phone Enrichment Concurrency configuration setting.
+   */
+  public int getPhoneEnrichmentConcurrency() {
+    Integer concurrency = null;
+    if (getConfiguration() != null) {
+      concurrency = getConfiguration().getPhoneEnrichmentConcurrency();
+    }
+    return concurrency == null ? DEFAULT_PHONE_ENRICHMENT_CONCURRENCY : Math.max(concurrency, 1);
+  }
+
+  /**
+   * @return Number of milliseconds between two summaries of the Zoom API metrics in the log, as
+   *     given by the Metrics Log Interval configuration setting, or 0 if they are only logged when
+   *     the driver is closed.
+   */
+  public long getMetricsLogIntervalMillis() {
+    Integer seconds = null;
+    if (getConfiguration() != null) {
+      seconds = getConfiguration().getMetricsLogInterval();
+    }
+    return TimeUnit.SECONDS.toMillis(
+        seconds == null ? DEFAULT_METRICS_LOG_INTERVAL : Math.max(seconds, 0));
+  }
+
+  /**
+   * @return Number of Zoom API calls above which a connector operation is logged as a warning, as
+   *     given by the Operation Call Budget configuration setting, or 0 for no limit.
+   */
+  public int getOperationCallBudget() {
+    Integer budget = null;
+    if (getConfiguration() != null) {
+      budget = getConfiguration().getOperationCallBudget();
+    }
+    return budget == null ? DEFAULT_OPERATION_CALL_BUDGET : Math.max(budget, 0);
+  }
+
+  /**
+   * Executes a PUT, PATCH or DELETE request that can safely be sent again, so that it is retried
+   * like a GET request when Zoom answers with a 5xx status.
+   *
+   * @param request Idempotent request
+   * @return Response data of the request
+   */
+  public <T> RestResponseData<T> executeIdempotentRequest(RestRequest<T> request) {
+    ZoomRetryStrategy.setIdempotent(true);
+    try {
+      return executeRequest(request);
+    } finally {
+      ZoomRetryStrategy.setIdempotent(false);
+    }
+  }
+
+  /**
+   * @param category Rate limit category of Zoom API endpoints
+   * @return Maximum number of requests per second sent to endpoints of this category, as given by
+   *     the Light, Medium and Heavy Requests Per Second configuration settings.
+   */
+  public int getRequestsPerSecond(ZoomRateLimitCategory category) {
+    Integer configured;
+    int defaultValue;
+    switch (category) {
+      case LIGHT:
+        configured =
+            getConfiguration() == null ? null : getConfiguration().getLightRequestsPerSecond();
+        defaultValue = DEFAULT_LIGHT_REQUESTS_PER_SECOND;
+        break;
+      case MEDIUM:
+        configured =
+            getConfiguration() == null ? null : getConfiguration().getMediumRequestsPerSecond();
+        defaultValue = DEFAULT_MEDIUM_REQUESTS_PER_SECOND;
+        break;
+      default:
+        configured =
+            getConfiguration() == null ? null : getConfiguration().getHeavyRequestsPerSecond();
+        defaultValue = DEFAULT_HEAVY_REQUESTS_PER_SECOND;
+        break;
+    }
+    return configured == null || configured <= 0 ? defaultValue : configured;
+  }
+
+  /**
+   * Returns the http client used for Zoom API requests, which is pooled as configured by the
+   * connection settings, paced by the {@link ZoomRateLimiter}, retried by the {@link
+   * ZoomRetryStrategy} and measured by the {@link ZoomApiMetrics}. The same client is returned
+   * until the driver is closed.
+   */
+  @Override
+  protected HttpClient createClient() {
+    apiMetrics.register();
+    return httpClientFactory.getClient(
+        builder ->
+            builder
+                .setServiceUnavailableRetryStrategy(retryStrategy)
+                .addInterceptorLast((HttpRequestInterceptor) rateLimiter)
+                .addInterceptorLast((HttpRequestInterceptor) apiMetrics)
+                .addInterceptorFirst((HttpResponseInterceptor) rateLimiter)
+                .addInterceptorLast((HttpResponseInterceptor) apiMetrics));
   }
 
   @Override
@@ -73,5 +363,36 @@ public class ZoomDriver extends BaseRestDriver<ZoomConfiguration> {
   }
 
   @Override
-  public void close() {}
+  public void close() {
+    if (retryStrategy.getRetries() > 0) {
+      Logger.info(
+          this,
+          String.format(
+              "Zoom API requests retried: %d, failed after retries: %d, not retried for budget: %d",
+              retryStrategy.getRetries(),
+              retryStrategy.getExhaustedRetries(),
+              retryStrategy.getExhaustedBudgets()));
+    }
+    phoneSiteCache.invalidate();
+    phoneUserIndex.invalidate();
+    groupMembershipIndex.invalidate();
+    groupNameIndex.invalidate();
+    userEmailIndex.invalidate();
+    pagePrefetcher.shutdown();
+    enrichmentExecutor.shutdown();
+    synchronized (this) {
+      if (userScanExecutor != null) {
+        userScanExecutor.shutdownNow();
+        userScanExecutor = null;
+      }
+      phoneBatchProvisioner.close();
+      groupMemberBatcher.close();
+      if (batchFlushExecutor != null) {
+        batchFlushExecutor.shutdown();
+        batchFlushExecutor = null;
+      }
+    }
+    apiMetrics.unregister();
+    httpClientFactory.close();
+  }
 }
@@ -0,0 +1,98 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+/**
+ * Runs per-item lookups that complete the items of a listing page, such as the Zoom Phone profile
+ * of each user, on a bounded pool of threads. The request rate of the lookups stays capped by the
+ * driver's rate limiter. Items are completed in place, so the page keeps its order.
+ */
+public class ZoomEnrichmentExecutor {
+
+  private final ZoomDriver driver;
+  private ExecutorService executor;
+  private int poolSize;
+
+  public ZoomEnrichmentExecutor(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * Applies the lookup to every item and returns once all lookups have completed.
+   *
+   * @param items Items to complete
+   * @param lookup Lookup completing one item
+   * @throws ConnectorException the first failure of a lookup, once all lookups have ended
+   */
+  public <T> void forEach(List<T> items, Consumer<T> lookup) throws ConnectorException {
+    int concurrency = driver.getPhoneEnrichmentConcurrency();
+    if (concurrency <= 1 || items.size() <= 1) {
+      items.forEach(lookup);
+      return;
+    }
+    ExecutorService pool = getExecutor(concurrency);
+    List<CompletableFuture<Void>> lookups = new ArrayList<>(items.size());
+    for (T item : items) {
+      lookups.add(
+          CompletableFuture.runAsync(
+              ZoomOperationContext.propagate(() -> lookup.accept(item)), pool));
+    }
+    try {
+      CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).get();
+    } catch (InterruptedException e) {
+      lookups.forEach(pending -> pending.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new ConnectorException("Interrupted while completing Zoom listing page", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ConnectorException) {
+        throw (ConnectorException) e.getCause();
+      }
+      throw new ConnectorException("Unable to complete Zoom listing page", e.getCause());
+    }
+  }
+
+  /** Stops the lookup threads. */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private synchronized ExecutorService getExecutor(int concurrency) {
+    if (executor == null || poolSize != concurrency) {
+      if (executor != null) {
+        executor.shutdown();
+      }
+      executor =
+          Executors.newFixedThreadPool(
+              concurrency,
+              runnable -> {
+                Thread thread = new Thread(runnable, "zoom-enrichment");
+                thread.setDaemon(true);
+                return thread;
+              });
+      poolSize = concurrency;
+    }
+    return executor;
+  }
+}
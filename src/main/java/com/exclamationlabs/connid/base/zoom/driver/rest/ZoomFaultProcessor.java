@@ -19,8 +19,13 @@ import com.exclamationlabs.connid.base.connector.driver.exception.DriverRenewabl
 import com.exclamationlabs.connid.base.connector.driver.rest.RestFaultProcessor;
 import com.exclamationlabs.connid.base.connector.logging.Logger;
 import com.exclamationlabs.connid.base.zoom.model.response.fault.ErrorResponse;
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import java.io.IOException;
+import java.io.StringReader;
 import org.apache.commons.codec.Charsets;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
@@ -35,6 +40,12 @@ public class ZoomFaultProcessor implements RestFaultProcessor {
 
   private static final ZoomFaultProcessor instance = new ZoomFaultProcessor();
 
+  /**
+   * Adapter binding fault responses, created from the last GsonBuilder received. The driver passes
+   * the same builder with each fault, so the adapter is only created again if the builder changes.
+   */
+  private volatile ErrorResponseBinding errorResponseBinding;
+
   public static ZoomFaultProcessor getInstance() {
     return instance;
   }
@@ -68,7 +79,17 @@ public class ZoomFaultProcessor implements RestFaultProcessor {
   }
 
   private void handleFaultResponse(String rawResponse, GsonBuilder gsonBuilder) {
-    ErrorResponse faultData = gsonBuilder.create().fromJson(rawResponse, ErrorResponse.class);
+    // Faults that are ignored, such as user not found, are recognized from their code alone
+    Integer code = readFaultCode(rawResponse);
+    if (code != null && isIgnoredFaultCode(code)) {
+      return;
+    }
+    ErrorResponse faultData = null;
+    try {
+      faultData = getErrorResponseAdapter(gsonBuilder).fromJson(rawResponse);
+    } catch (IOException e) {
+      Logger.info(this, String.format("Unable to parse Zoom fault response %s", rawResponse));
+    }
     if (faultData != null) {
       if (faultData.getCode() != null) {
         if (checkRecognizedFaultCodes(faultData)) {
@@ -88,6 +109,53 @@ public class ZoomFaultProcessor implements RestFaultProcessor {
         "Unknown fault received from Zoom. Raw response JSON: " + rawResponse);
   }
 
+  private TypeAdapter<ErrorResponse> getErrorResponseAdapter(GsonBuilder gsonBuilder) {
+    ErrorResponseBinding binding = errorResponseBinding;
+    if (binding == null || binding.gsonBuilder != gsonBuilder) {
+      Gson gson = gsonBuilder == null ? new Gson() : gsonBuilder.create();
+      binding = new ErrorResponseBinding(gsonBuilder, gson.getAdapter(ErrorResponse.class));
+      errorResponseBinding = binding;
+    }
+    return binding.adapter;
+  }
+
+  /**
+   * Reads the code of a fault response without binding the rest of the response.
+   *
+   * @param rawResponse JSON fault response
+   * @return Value of the top level code field, or null if absent or unreadable
+   */
+  static Integer readFaultCode(String rawResponse) {
+    try (JsonReader reader = new JsonReader(new StringReader(rawResponse))) {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        return null;
+      }
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if ("code".equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER) {
+          return reader.nextInt();
+        }
+        reader.skipValue();
+      }
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      return null;
+    }
+    return null;
+  }
+
+  /** @return true if faults with this code are not reported as errors to MidPoint */
+  private static boolean isIgnoredFaultCode(int code) {
+    switch (code) {
+      case USER_NOT_FOUND:
+      case GROUP_NOT_FOUND:
+      case REQUIRES_MANAGED_DOMAIN:
+      case USER_ALREADY_EXISTS:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   private Boolean checkRecognizedFaultCodes(ErrorResponse faultData) {
     switch (faultData.getCode()) {
       case PAID_SUBSCRIPTION_REQUIRED:
@@ -95,7 +163,6 @@ public class ZoomFaultProcessor implements RestFaultProcessor {
 
       case USER_NOT_FOUND:
       case GROUP_NOT_FOUND:
-        return false;
       case REQUIRES_MANAGED_DOMAIN:
         // ignore fault and return to Midpoint
         return false;
@@ -132,4 +199,15 @@ public class ZoomFaultProcessor implements RestFaultProcessor {
     }
     return false;
   }
+
+  /** Fault response adapter together with the GsonBuilder it was created from. */
+  private static final class ErrorResponseBinding {
+    private final GsonBuilder gsonBuilder;
+    private final TypeAdapter<ErrorResponse> adapter;
+
+    private ErrorResponseBinding(GsonBuilder builder, TypeAdapter<ErrorResponse> errorAdapter) {
+      gsonBuilder = builder;
+      adapter = errorAdapter;
+    }
+  }
 }
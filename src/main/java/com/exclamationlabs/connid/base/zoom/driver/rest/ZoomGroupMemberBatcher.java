@@ -0,0 +1,169 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.driver.rest.RestRequest;
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.model.GroupMember;
+import com.exclamationlabs.connid.base.zoom.model.request.GroupMembersRequest;
+import com.exclamationlabs.connid.base.zoom.model.response.GroupMembersResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+/**
+ * Adds users to Zoom groups with POST /groups/{groupId}/members, which accepts up to 30 members per
+ * request. When the Group Member Batch Window setting is positive, the users added to a group by
+ * concurrent operations of the same driver while a request for that group is being sent are
+ * collected, for at most that window, and added together. Each user is told whether Zoom added it.
+ * The queues belong to the driver, and the queue of a group is dropped once it is idle, so that
+ * groups do not accumulate queues.
+ */
+public class ZoomGroupMemberBatcher {
+
+  /** Largest number of members accepted by POST /groups/{groupId}/members. */
+  private static final int MAX_MEMBERS_PER_REQUEST = 30;
+
+  private final Map<String, ZoomBatchQueue<String, Boolean>> queues = new ConcurrentHashMap<>();
+
+  private final ZoomDriver driver;
+
+  public ZoomGroupMemberBatcher(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * Adds a user to several groups. The additions are sent one group after the other by the calling
+   * thread, except that an addition to a group whose request is being sent by another operation is
+   * collected into the next batch of that group, and does not hold up the following groups. Each
+   * group the user was added to is recorded by the group membership index, including when the
+   * addition to another group failed.
+   *
+   * @param userId Zoom user id
+   * @param groupIds Ids of the groups the user is added to
+   * @throws ConnectorException if the user could not be added to one of the groups
+   */
+  public void addMember(String userId, Collection<String> groupIds) throws ConnectorException {
+    Map<String, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+    Map<String, ZoomBatchQueue<String, Boolean>> usedQueues = new LinkedHashMap<>();
+    int batchWindow = getBatchWindow();
+    for (String groupId : groupIds) {
+      String key = groupId + "|" + batchWindow;
+      ZoomBatchQueue<String, Boolean> queue =
+          queues.computeIfAbsent(
+              key,
+              k ->
+                  new ZoomBatchQueue<>(
+                      MAX_MEMBERS_PER_REQUEST,
+                      batchWindow,
+                      driver.getBatchFlushExecutor(),
+                      members -> addMembers(groupId, members)));
+      usedQueues.put(key, queue);
+      results.put(groupId, queue.enqueue(userId));
+    }
+    List<String> failedGroupIds = new ArrayList<>();
+    ConnectorException cause = null;
+    for (Map.Entry<String, CompletableFuture<Boolean>> result : results.entrySet()) {
+      try {
+        if (Boolean.TRUE.equals(ZoomBatchQueue.await(result.getValue()))) {
+          driver.getGroupMembershipIndex().memberAdded(result.getKey(), userId);
+          Logger.info(
+              this,
+              String.format(
+                  "Successfully added group id %s to user id %s", result.getKey(), userId));
+        } else {
+          failedGroupIds.add(result.getKey());
+        }
+      } catch (ConnectorException e) {
+        failedGroupIds.add(result.getKey());
+        if (cause == null) {
+          cause = e;
+        }
+      }
+    }
+    for (Map.Entry<String, ZoomBatchQueue<String, Boolean>> queue : usedQueues.entrySet()) {
+      if (queue.getValue().isIdle()) {
+        queues.remove(queue.getKey(), queue.getValue());
+      }
+    }
+    if (!failedGroupIds.isEmpty()) {
+      throw new ConnectorException(
+          String.format("Zoom did not add user id %s to group ids %s", userId, failedGroupIds),
+          cause);
+    }
+  }
+
+  private int getBatchWindow() {
+    Integer window = driver.getConfiguration().getGroupMemberBatchWindow();
+    return window == null || window < 0 ? 0 : window;
+  }
+
+  /** Drops the queues of the driver being closed. */
+  public void close() {
+    queues.clear();
+  }
+
+  /**
+   * Sends one request adding the given users to a group.
+   *
+   * @return For each user, in order, whether Zoom reported it as added
+   */
+  private List<Boolean> addMembers(String groupId, List<String> userIds) {
+    List<GroupMember> memberList = new ArrayList<>();
+    for (String userId : userIds) {
+      memberList.add(new GroupMember(userId));
+    }
+    GroupMembersResponse response =
+        driver
+            .executeRequest(
+                new RestRequest.Builder<>(GroupMembersResponse.class)
+                    .withPost()
+                    .withRequestUri("/groups/" + groupId + "/members")
+                    .withRequestBody(new GroupMembersRequest(memberList))
+                    .build())
+            .getResponseObject();
+
+    if (response == null || response.getAddedAt() == null) {
+      throw new ConnectorException(
+          String.format(
+              "Unexpected response received while adding user ids %s to group id %s",
+              userIds, groupId));
+    }
+    // Without the list of added ids, the request is taken as having added every member
+    Set<String> addedIds = new HashSet<>();
+    if (StringUtils.isNotBlank(response.getIds())) {
+      for (String id : Arrays.asList(response.getIds().split(","))) {
+        addedIds.add(id.trim());
+      }
+    }
+    List<Boolean> added = new ArrayList<>(userIds.size());
+    for (String userId : userIds) {
+      added.add(addedIds.isEmpty() || addedIds.contains(userId));
+    }
+    if (userIds.size() > 1) {
+      Logger.info(
+          this,
+          String.format("Added %d members to group id %s in one request", userIds.size(), groupId));
+    }
+    return added;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.zoom.model.GroupMember;
+import com.exclamationlabs.connid.base.zoom.model.response.ListGroupMembersResponse;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the member ids of Zoom groups, read with the paged GET /groups/{groupId}/members listing.
+ * The group ids of a user are not indexed, since Zoom returns them with the user. The members of a
+ * group are read again once the configured cache time to live has elapsed. Membership changes made
+ * by the connector are applied to the cached data, and members read while such a change was made
+ * are not cached.
+ */
+public class ZoomGroupMembershipIndex {
+
+  /** Largest page_size accepted by GET /groups/{groupId}/members. */
+  private static final int MAX_PAGE_SIZE = 300;
+
+  private final ZoomDriver driver;
+  private final Map<String, GroupMembers> membersByGroup = new ConcurrentHashMap<>();
+  private long changeCount = 0L;
+
+  public ZoomGroupMembershipIndex(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * @param groupId Zoom group id
+   * @return Ids of the users that are members of the group
+   */
+  public Set<String> getMemberIds(String groupId) {
+    GroupMembers members = membersByGroup.get(groupId);
+    if (members != null && !isExpired(members.loadedAt)) {
+      return members.userIds;
+    }
+    // The members are read without holding the lock, and only kept if no membership changed
+    // meanwhile, since the listing may or may not include such a change
+    long changesBeforeRead;
+    synchronized (this) {
+      changesBeforeRead = changeCount;
+    }
+    long loadedAt = System.currentTimeMillis();
+    Set<String> userIds = readMemberIds(groupId);
+    synchronized (this) {
+      if (changeCount == changesBeforeRead) {
+        membersByGroup.put(groupId, new GroupMembers(userIds, loadedAt));
+      }
+    }
+    return userIds;
+  }
+
+  /** Records that the connector added a user to a group. */
+  public synchronized void memberAdded(String groupId, String userId) {
+    changeCount++;
+    GroupMembers members = membersByGroup.get(groupId);
+    if (members != null) {
+      membersByGroup.put(groupId, members.with(userId, true));
+    }
+  }
+
+  /** Records that the connector removed a user from a group. */
+  public synchronized void memberRemoved(String groupId, String userId) {
+    changeCount++;
+    GroupMembers members = membersByGroup.get(groupId);
+    if (members != null) {
+      membersByGroup.put(groupId, members.with(userId, false));
+    }
+  }
+
+  /** Records that a user was deleted, which removes it from all of its groups. */
+  public synchronized void userDeleted(String userId) {
+    changeCount++;
+    for (Map.Entry<String, GroupMembers> entry : membersByGroup.entrySet()) {
+      if (entry.getValue().userIds.contains(userId)) {
+        entry.setValue(entry.getValue().with(userId, false));
+      }
+    }
+  }
+
+  /** Records that a group was deleted. */
+  public synchronized void groupDeleted(String groupId) {
+    changeCount++;
+    membersByGroup.remove(groupId);
+  }
+
+  /** Discards the known members so that they are read again when next needed. */
+  public synchronized void invalidate() {
+    changeCount++;
+    membersByGroup.clear();
+  }
+
+  private boolean isExpired(long loadedAt) {
+    return loadedAt == 0L
+        || System.currentTimeMillis() - loadedAt >= driver.getCacheTimeToLiveMillis();
+  }
+
+  /** Reads the member ids of a group from Zoom. */
+  Set<String> readMemberIds(String groupId) {
+    Set<String> userIds = new HashSet<>();
+    ZoomPageIterator<ListGroupMembersResponse> pages =
+        new ZoomPageIterator<>(
+            driver,
+            ListGroupMembersResponse.class,
+            "/groups/" + groupId + "/members",
+            MAX_PAGE_SIZE);
+    while (pages.hasNext()) {
+      ListGroupMembersResponse page = pages.next();
+      if (page != null && page.getMembers() != null) {
+        for (GroupMember member : page.getMembers()) {
+          if (member.getId() != null) {
+            userIds.add(member.getId());
+          }
+        }
+      }
+    }
+    return Collections.unmodifiableSet(userIds);
+  }
+
+  /** Member ids of a group, replaced rather than changed when a member is added or removed. */
+  private static final class GroupMembers {
+    private final Set<String> userIds;
+    private final long loadedAt;
+
+    private GroupMembers(Set<String> userIdsInput, long loadedAtInput) {
+      userIds = userIdsInput;
+      loadedAt = loadedAtInput;
+    }
+
+    private GroupMembers with(String userId, boolean member) {
+      Set<String> updated = new HashSet<>(userIds);
+      if (member) {
+        updated.add(userId);
+      } else {
+        updated.remove(userId);
+      }
+      return new GroupMembers(Collections.unmodifiableSet(updated), loadedAt);
+    }
+  }
+}
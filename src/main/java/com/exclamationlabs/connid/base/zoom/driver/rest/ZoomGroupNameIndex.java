@@ -0,0 +1,152 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.model.ZoomGroup;
+import com.exclamationlabs.connid.base.zoom.model.response.ListGroupsResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds the Zoom groups of the account indexed by case-folded group name, so that finding a group
+ * by name does not require listing all groups. The index is reloaded once the configured cache time
+ * to live has elapsed, when a lookup misses, or after {@link #invalidate()} has been called. Groups
+ * created or deleted by the connector are added to or removed from the index.
+ */
+public class ZoomGroupNameIndex {
+
+  /** Minimum time between two reloads caused by a lookup that did not match any group. */
+  private static final long MISS_RELOAD_INTERVAL_MILLIS = 30000L;
+
+  private final ZoomDriver driver;
+
+  private volatile Map<String, ZoomGroup> groupsByName = Collections.emptyMap();
+  private volatile long loadedAt = 0L;
+
+  public ZoomGroupNameIndex(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * @param groupName Name of the group, compared ignoring case and surrounding whitespace
+   * @return A copy of the group as listed by Zoom, or null if no group has this name
+   */
+  public ZoomGroup getByName(String groupName) {
+    if (groupName == null || groupName.trim().isEmpty()) {
+      return null;
+    }
+    String key = foldName(groupName);
+    ensureLoaded();
+    ZoomGroup group = groupsByName.get(key);
+    if (group == null && reloadAfterMiss()) {
+      group = groupsByName.get(key);
+    }
+    return copy(group);
+  }
+
+  /** Adds a group created by the connector to the index, if the index is loaded. */
+  public synchronized void put(ZoomGroup group) {
+    if (loadedAt == 0L || group == null || group.getId() == null || group.getName() == null) {
+      return;
+    }
+    Map<String, ZoomGroup> updated = new HashMap<>(groupsByName);
+    updated.values().removeIf(indexed -> group.getId().equals(indexed.getId()));
+    updated.put(foldName(group.getName()), copy(group));
+    groupsByName = updated;
+  }
+
+  /** Removes a group deleted by the connector from the index. */
+  public synchronized void remove(String groupId) {
+    Map<String, ZoomGroup> updated = new HashMap<>(groupsByName);
+    if (updated.values().removeIf(indexed -> indexed.getId().equals(groupId))) {
+      groupsByName = updated;
+    }
+  }
+
+  /** Discards the indexed groups so that the next lookup reloads them from Zoom. */
+  public void invalidate() {
+    loadedAt = 0L;
+  }
+
+  private void ensureLoaded() {
+    long age = System.currentTimeMillis() - loadedAt;
+    if (loadedAt == 0L || age >= driver.getCacheTimeToLiveMillis()) {
+      synchronized (this) {
+        age = System.currentTimeMillis() - loadedAt;
+        if (loadedAt == 0L || age >= driver.getCacheTimeToLiveMillis()) {
+          load();
+        }
+      }
+    }
+  }
+
+  /** @return Minimum number of milliseconds between two reloads caused by a lookup miss */
+  long getMissReloadIntervalMillis() {
+    return MISS_RELOAD_INTERVAL_MILLIS;
+  }
+
+  /** Reads all the groups of the account from Zoom. */
+  List<ZoomGroup> readGroups() {
+    List<ZoomGroup> groups = new ArrayList<>();
+    ZoomPageIterator<ListGroupsResponse> pages =
+        new ZoomPageIterator<>(
+            driver, ListGroupsResponse.class, "/groups", ZoomGroupsInvocator.MAX_GROUP_PAGE_SIZE);
+    while (pages.hasNext()) {
+      ListGroupsResponse page = pages.next();
+      if (page != null && page.getGroups() != null) {
+        groups.addAll(page.getGroups());
+      }
+    }
+    return groups;
+  }
+
+  private synchronized boolean reloadAfterMiss() {
+    if (System.currentTimeMillis() - loadedAt < getMissReloadIntervalMillis()) {
+      return false;
+    }
+    load();
+    return true;
+  }
+
+  private void load() {
+    Map<String, ZoomGroup> byName = new HashMap<>();
+    for (ZoomGroup group : readGroups()) {
+      if (group.getId() != null && group.getName() != null) {
+        byName.put(foldName(group.getName()), group);
+      }
+    }
+    groupsByName = byName;
+    loadedAt = System.currentTimeMillis();
+    Logger.info(this, String.format("Loaded %d Zoom group names", byName.size()));
+  }
+
+  private static ZoomGroup copy(ZoomGroup group) {
+    if (group == null) {
+      return null;
+    }
+    ZoomGroup result = new ZoomGroup();
+    result.setId(group.getId());
+    result.setName(group.getName());
+    result.setTotalMembers(group.getTotalMembers());
+    return result;
+  }
+
+  private static String foldName(String groupName) {
+    return groupName.trim().toLowerCase(Locale.ROOT);
+  }
+}
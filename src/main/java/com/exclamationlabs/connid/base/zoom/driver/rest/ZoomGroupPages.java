@@ -0,0 +1,72 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.model.ZoomGroup;
+import com.exclamationlabs.connid.base.zoom.model.response.ListGroupsResponse;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Walks the GET /groups listing and returns the groups of one page per call to {@link #next()}. An
+ * account without the paid subscription needed to list groups is treated as having no groups.
+ */
+public class ZoomGroupPages implements Iterator<Collection<ZoomGroup>> {
+
+  private final ZoomPageIterator<ListGroupsResponse> pages;
+  private final Consumer<ZoomGroup> completion;
+
+  private boolean unavailable = false;
+
+  /**
+   * @param zoomDriver Driver used to execute the page requests
+   * @param pageSize Number of groups requested per page
+   * @param completionInput Applied to each listed group before it is returned
+   */
+  public ZoomGroupPages(ZoomDriver zoomDriver, int pageSize, Consumer<ZoomGroup> completionInput) {
+    pages = new ZoomPageIterator<>(zoomDriver, ListGroupsResponse.class, "/groups", pageSize);
+    completion = completionInput;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !unavailable && pages.hasNext();
+  }
+
+  @Override
+  public Collection<ZoomGroup> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    ListGroupsResponse page;
+    try {
+      page = pages.next();
+    } catch (PaidAccountRequiredException paid) {
+      Logger.warn(
+          this,
+          "Retrieval of groups not possible without paid Zoom subscription.  Returning no groups.",
+          paid);
+      unavailable = true;
+      return Collections.emptySet();
+    }
+    if (page == null || page.getGroups() == null) {
+      return Collections.emptySet();
+    }
+    page.getGroups().forEach(completion);
+    return page.getGroups();
+  }
+}
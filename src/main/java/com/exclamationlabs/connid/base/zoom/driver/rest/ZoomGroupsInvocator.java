@@ -13,6 +13,8 @@
 
 package com.exclamationlabs.connid.base.zoom.driver.rest;
 
+import static com.exclamationlabs.connid.base.zoom.attribute.ZoomGroupAttribute.MEMBER_IDS;
+
 import com.exclamationlabs.connid.base.connector.driver.DriverInvocator;
 import com.exclamationlabs.connid.base.connector.driver.rest.RestRequest;
 import com.exclamationlabs.connid.base.connector.logging.Logger;
@@ -23,10 +25,14 @@ import com.exclamationlabs.connid.base.zoom.model.response.ListGroupsResponse;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 
 public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGroup> {
 
+  /** Largest page_size accepted by GET /groups. */
+  static final int MAX_GROUP_PAGE_SIZE = 100;
+
   @Override
   public String create(ZoomDriver zoomDriver, ZoomGroup groupModel) throws ConnectorException {
 
@@ -44,6 +50,7 @@ public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGrou
       if (newGroup == null || newGroup.getId() == null) {
         throw new ConnectorException("Response from group creation was invalid");
       }
+      zoomDriver.getGroupNameIndex().put(newGroup);
 
       return newGroup.getId();
     } catch (PaidAccountRequiredException paid) {
@@ -61,12 +68,13 @@ public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGrou
       // so create a new object w/ just the name set
       modifyGroup.setName(groupModel.getName());
 
-      zoomDriver.executeRequest(
+      zoomDriver.executeIdempotentRequest(
           new RestRequest.Builder<>(Void.class)
               .withPatch()
               .withRequestUri("/groups/" + groupId)
               .withRequestBody(modifyGroup)
               .build());
+      zoomDriver.getGroupNameIndex().invalidate();
     } catch (PaidAccountRequiredException paid) {
       Logger.warn(
           this,
@@ -80,11 +88,13 @@ public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGrou
   public void delete(ZoomDriver zoomDriver, String groupId) throws ConnectorException {
     if (zoomDriver.getConfiguration().getEntitlementDeletionEnabled()) {
       try {
-        zoomDriver.executeRequest(
-                new RestRequest.Builder<>(Void.class)
-                        .withDelete()
-                        .withRequestUri("/groups/" + groupId)
-                        .build());
+        zoomDriver.executeIdempotentRequest(
+            new RestRequest.Builder<>(Void.class)
+                .withDelete()
+                .withRequestUri("/groups/" + groupId)
+                .build());
+        zoomDriver.getGroupMembershipIndex().groupDeleted(groupId);
+        zoomDriver.getGroupNameIndex().remove(groupId);
       } catch (PaidAccountRequiredException paid) {
         Logger.warn(
                 this,
@@ -101,18 +111,43 @@ public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGrou
   public Set<ZoomGroup> getAll(
       ZoomDriver zoomDriver, ResultsFilter filter, ResultsPaginator paginator, Integer forceNum)
       throws ConnectorException {
+    if (!paginator.hasPagination()) {
+      return new ZoomStreamingSet<>(
+          () ->
+              new ZoomGroupPages(
+                  zoomDriver, MAX_GROUP_PAGE_SIZE, group -> readMemberIds(zoomDriver, group)));
+    }
     try {
-      ListGroupsResponse response =
-          zoomDriver
-              .executeRequest(
-                  new RestRequest.Builder<>(ListGroupsResponse.class)
-                      .withGet()
-                      .withRequestUri("/groups")
-                      .build())
-              .getResponseObject();
-      if (paginator.hasPagination()) {
+      // The paginator token holds the next_page_token of the page to list
+      ZoomPageIterator<ListGroupsResponse> pages =
+          new ZoomPageIterator<>(
+              zoomDriver,
+              ListGroupsResponse.class,
+              "/groups",
+              getGroupPageSize(paginator),
+              StringUtils.trimToNull(paginator.getTokenAsString()));
+      ListGroupsResponse response = pages.next();
+      paginator.setToken(pages.getNextPageToken());
+      if (pages.getNextPageToken() == null) {
         paginator.setNoMoreResults(true);
       }
+      if (response == null || response.getGroups() == null) {
+        return Collections.emptySet();
+      }
+      paginator.setTotalResults(response.getTotalRecords());
+      paginator.setPageSize(response.getPageSize());
+      paginator.setNumberOfProcessedPages(
+          paginator.getNumberOfProcessedPages() == null
+              ? 1
+              : paginator.getNumberOfProcessedPages() + 1);
+      paginator.setNumberOfProcessedResults(
+          (paginator.getNumberOfProcessedResults() == null
+                  ? 0
+                  : paginator.getNumberOfProcessedResults())
+              + response.getGroups().size());
+      for (ZoomGroup group : response.getGroups()) {
+        readMemberIds(zoomDriver, group);
+      }
       return response.getGroups();
     } catch (PaidAccountRequiredException paid) {
       Logger.warn(
@@ -127,13 +162,16 @@ public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGrou
   public ZoomGroup getOne(ZoomDriver zoomDriver, String groupId, Map<String, Object> dataMap)
       throws ConnectorException {
     try {
-      return zoomDriver
-          .executeRequest(
-              new RestRequest.Builder<>(ZoomGroup.class)
-                  .withGet()
-                  .withRequestUri("/groups/" + groupId)
-                  .build())
-          .getResponseObject();
+      ZoomGroup group =
+          zoomDriver
+              .executeRequest(
+                  new RestRequest.Builder<>(ZoomGroup.class)
+                      .withGet()
+                      .withRequestUri("/groups/" + groupId)
+                      .build())
+              .getResponseObject();
+      readMemberIds(zoomDriver, group);
+      return group;
     } catch (PaidAccountRequiredException paid) {
       Logger.warn(
           this,
@@ -144,6 +182,25 @@ public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGrou
     }
   }
 
+  private static int getGroupPageSize(ResultsPaginator paginator) {
+    if (paginator.getPageSize() == null || paginator.getPageSize() <= 0) {
+      return MAX_GROUP_PAGE_SIZE;
+    }
+    return Math.min(paginator.getPageSize(), MAX_GROUP_PAGE_SIZE);
+  }
+
+  /**
+   * Sets the member ids of the group when the current operation asked for them, which takes one
+   * paged GET /groups/{groupId}/members listing per group.
+   */
+  private void readMemberIds(ZoomDriver zoomDriver, ZoomGroup group) {
+    if (group != null
+        && group.getId() != null
+        && ZoomOperationContext.isAttributeExplicitlyRequested(MEMBER_IDS)) {
+      group.setMemberIds(zoomDriver.getGroupMembershipIndex().getMemberIds(group.getId()));
+    }
+  }
+
   /**
    * @param driver Driver belonging to this Invocator and providing interaction with the applicable
    *     destination system.
@@ -151,23 +208,22 @@ public class ZoomGroupsInvocator implements DriverInvocator<ZoomDriver, ZoomGrou
    *     system.
    * @param prefetchDataMap Map of prefetch data applicable to the Identity Model and that may be
    *     understood by the invocator.
-   * @return A ZoomGroup object with the name specified
+   * @return A ZoomGroup object with the name specified, read from the driver's group name index
    * @throws ConnectorException
    */
   @Override
   public ZoomGroup getOneByName(ZoomDriver driver, String name, Map<String, Object> prefetchDataMap)
       throws ConnectorException {
-    ZoomGroup item = null;
-    Set<ZoomGroup> groups = getAll(driver, null, new ResultsPaginator(), null);
-    if (groups != null && groups.size() > 0) {
-      for (ZoomGroup group : groups) {
-        if (name != null
-            && group.getName() != null
-            && group.getName().trim().equalsIgnoreCase(name.trim())) {
-          item = getOne(driver, group.getId(), prefetchDataMap);
-        }
-      }
+    try {
+      ZoomGroup item = driver.getGroupNameIndex().getByName(name);
+      readMemberIds(driver, item);
+      return item;
+    } catch (PaidAccountRequiredException paid) {
+      Logger.warn(
+          this,
+          "Retrieval of groups not possible without paid Zoom subscription.  Returning no match.",
+          paid);
+      return null;
     }
-    return item;
   }
 }
@@ -0,0 +1,197 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Creates the http client of a {@link ZoomDriver} according to the connection settings of the
+ * connector configuration. Connector instances having the same pool settings share one pooled
+ * connection manager, so that concurrent MidPoint worker threads reuse established TLS connections
+ * to the Zoom API. A shared pool is closed once the last driver using it has been closed.
+ */
+public class ZoomHttpClientFactory {
+
+  private static final int DEFAULT_POOL_SIZE = 20;
+  private static final int DEFAULT_MAX_PER_ROUTE = 20;
+  private static final int DEFAULT_KEEP_ALIVE = 30;
+  private static final int DEFAULT_CONNECT_TIMEOUT = 10;
+  private static final int DEFAULT_SOCKET_TIMEOUT = 60;
+  private static final int DEFAULT_VALIDATE_AFTER_INACTIVITY = 2000;
+
+  /** Interval between two checks for expired and idle connections of a pool. */
+  private static final long EVICTION_INTERVAL_SECONDS = 10L;
+
+  private static final Map<String, SharedPool> POOLS = new HashMap<>();
+
+  private final ZoomDriver driver;
+
+  private SharedPool pool;
+  private CloseableHttpClient client;
+
+  public ZoomHttpClientFactory(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * @param customizer Adds the driver specific interceptors and strategies to the client
+   * @return The http client of the driver, created on first use
+   */
+  public synchronized CloseableHttpClient getClient(Consumer<HttpClientBuilder> customizer) {
+    if (client != null) {
+      return client;
+    }
+    ZoomConfiguration configuration = driver.getConfiguration();
+    int poolSize =
+        getSetting(
+            configuration == null ? null : configuration.getConnectionPoolSize(),
+            DEFAULT_POOL_SIZE);
+    int maxPerRoute =
+        getSetting(
+            configuration == null ? null : configuration.getMaxConnectionsPerRoute(),
+            DEFAULT_MAX_PER_ROUTE);
+    int keepAlive =
+        getSetting(
+            configuration == null ? null : configuration.getConnectionKeepAlive(),
+            DEFAULT_KEEP_ALIVE);
+    int connectTimeout =
+        getSetting(
+            configuration == null ? null : configuration.getConnectTimeout(),
+            DEFAULT_CONNECT_TIMEOUT);
+    int socketTimeout =
+        getSetting(
+            configuration == null ? null : configuration.getSocketTimeout(),
+            DEFAULT_SOCKET_TIMEOUT);
+    int validateAfterInactivity =
+        getSetting(
+            configuration == null ? null : configuration.getValidateConnectionAfterInactivity(),
+            DEFAULT_VALIDATE_AFTER_INACTIVITY);
+
+    pool = acquirePool(poolSize, maxPerRoute, validateAfterInactivity, keepAlive);
+    long keepAliveMillis = TimeUnit.SECONDS.toMillis(keepAlive);
+    ConnectionKeepAliveStrategy keepAliveStrategy =
+        (response, context) -> {
+          long duration =
+              DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+          return duration < 0 ? keepAliveMillis : Math.min(duration, keepAliveMillis);
+        };
+    RequestConfig requestConfig =
+        RequestConfig.custom()
+            .setConnectTimeout((int) TimeUnit.SECONDS.toMillis(connectTimeout))
+            .setConnectionRequestTimeout((int) TimeUnit.SECONDS.toMillis(connectTimeout))
+            .setSocketTimeout((int) TimeUnit.SECONDS.toMillis(socketTimeout))
+            .build();
+    HttpClientBuilder builder =
+        HttpClientBuilder.create()
+            .setConnectionManager(pool.connectionManager)
+            .setConnectionManagerShared(true)
+            .setKeepAliveStrategy(keepAliveStrategy)
+            .setDefaultRequestConfig(requestConfig)
+            .useSystemProperties();
+    customizer.accept(builder);
+    client = builder.build();
+    return client;
+  }
+
+  /** Closes the client of the driver and releases its connection pool. */
+  public synchronized void close() {
+    if (client != null) {
+      try {
+        client.close();
+      } catch (IOException e) {
+        Logger.warn(this, "Unable to close Zoom http client", e);
+      }
+      client = null;
+    }
+    if (pool != null) {
+      releasePool(pool);
+      pool = null;
+    }
+  }
+
+  /** @return Connection manager of the pool used by the client, or null if there is no client */
+  synchronized PoolingHttpClientConnectionManager getConnectionManager() {
+    return pool == null ? null : pool.connectionManager;
+  }
+
+  private static int getSetting(Integer value, int defaultValue) {
+    return value == null || value <= 0 ? defaultValue : value;
+  }
+
+  private SharedPool acquirePool(
+      int poolSize, int maxPerRoute, int validateAfterInactivity, int keepAlive) {
+    String key = poolSize + "/" + maxPerRoute + "/" + validateAfterInactivity + "/" + keepAlive;
+    synchronized (POOLS) {
+      SharedPool shared = POOLS.get(key);
+      if (shared == null) {
+        PoolingHttpClientConnectionManager connectionManager =
+            new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(poolSize);
+        connectionManager.setDefaultMaxPerRoute(Math.min(maxPerRoute, poolSize));
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+        shared = new SharedPool(key, connectionManager, keepAlive);
+        POOLS.put(key, shared);
+        Logger.info(
+            this, String.format("Created Zoom connection pool of %d connections", poolSize));
+      }
+      shared.users++;
+      return shared;
+    }
+  }
+
+  private static void releasePool(SharedPool shared) {
+    synchronized (POOLS) {
+      shared.users--;
+      if (shared.users <= 0) {
+        POOLS.remove(shared.key);
+        shared.evictor.shutdown();
+        shared.connectionManager.close();
+      }
+    }
+  }
+
+  /** Connection manager shared by the drivers having the same pool settings. */
+  private static final class SharedPool {
+    private final String key;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final IdleConnectionEvictor evictor;
+    private int users = 0;
+
+    private SharedPool(
+        String poolKey, PoolingHttpClientConnectionManager manager, int keepAliveSeconds) {
+      key = poolKey;
+      connectionManager = manager;
+      evictor =
+          new IdleConnectionEvictor(
+              manager,
+              EVICTION_INTERVAL_SECONDS,
+              TimeUnit.SECONDS,
+              keepAliveSeconds,
+              TimeUnit.SECONDS);
+      evictor.start();
+    }
+  }
+}
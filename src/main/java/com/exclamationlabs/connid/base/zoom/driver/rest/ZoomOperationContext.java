@@ -0,0 +1,287 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static com.exclamationlabs.connid.base.zoom.attribute.ZoomUserAttribute.*;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.attribute.ZoomUserAttribute;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+
+/**
+ * Information about the connector operation being executed by the current thread, made available to
+ * the driver and invocators, which only receive identity models. The context is started by {@link
+ * com.exclamationlabs.connid.base.zoom.ZoomConnector} and carried over to the background threads
+ * that work on behalf of the operation. The Zoom API calls made by the operation are traced, and
+ * summarized in the log when the operation ends.
+ */
+public final class ZoomOperationContext {
+
+  /** User attributes whose values are read from the Zoom Phone user profile. */
+  private static final Set<ZoomUserAttribute> PHONE_ATTRIBUTES =
+      EnumSet.of(
+          ZOOM_PHONE_FEATURE,
+          ZOOM_PHONE_STATUS,
+          ZOOM_PHONE_NUMBERS,
+          ZOOM_PHONE_CALLING_PLANS,
+          EXTENSION_NUMBER,
+          CALLING_PLAN,
+          SITE_ID,
+          SITE_NAME,
+          SITE_CODE);
+
+  /** User attributes whose values are only known from the Zoom Phone site listing. */
+  private static final Set<ZoomUserAttribute> SITE_ATTRIBUTES = EnumSet.of(SITE_NAME, SITE_CODE);
+
+  private static final ThreadLocal<ZoomOperationContext> CURRENT = new ThreadLocal<>();
+
+  private final String operation;
+  private final String objectClass;
+  private final Set<String> attributesToGet;
+  private final AtomicInteger retries = new AtomicInteger();
+  private final ZoomOperationTrace trace = new ZoomOperationTrace();
+  private final List<AutoCloseable> resources = new CopyOnWriteArrayList<>();
+  private final long startedAt = System.nanoTime();
+
+  private ZoomOperationContext(
+      String operationInput, ObjectClass objectClassInput, OperationOptions options) {
+    operation = operationInput;
+    objectClass = objectClassInput == null ? null : objectClassInput.getObjectClassValue();
+    if (options != null && options.getAttributesToGet() != null) {
+      attributesToGet =
+          Collections.unmodifiableSet(new HashSet<>(Arrays.asList(options.getAttributesToGet())));
+    } else {
+      attributesToGet = null;
+    }
+  }
+
+  /**
+   * Starts the context of an operation on the current thread.
+   *
+   * @param operation Name of the connector operation, such as "update"
+   * @param objectClass Object class of the operation
+   * @param options Options of the connector operation
+   */
+  public static void begin(String operation, ObjectClass objectClass, OperationOptions options) {
+    CURRENT.set(new ZoomOperationContext(operation, objectClass, options));
+  }
+
+  /**
+   * Ends the context of the operation executed by the current thread, closing the resources
+   * registered by the operation.
+   *
+   * @return Context of the operation, or null if none
+   */
+  public static ZoomOperationContext end() {
+    ZoomOperationContext context = CURRENT.get();
+    CURRENT.remove();
+    if (context != null) {
+      for (AutoCloseable resource : context.resources) {
+        try {
+          resource.close();
+        } catch (Exception e) {
+          Logger.warn(context, "Unable to close resource of the ended operation", e);
+        }
+      }
+      context.resources.clear();
+    }
+    return context;
+  }
+
+  /**
+   * Registers a resource, such as a streamed listing, to be closed when the current operation ends.
+   * Outside of an operation, the resource is left to its owner.
+   */
+  static void closeOnEnd(AutoCloseable resource) {
+    ZoomOperationContext context = CURRENT.get();
+    if (context != null) {
+      context.resources.add(resource);
+    }
+  }
+
+  /** @return Context of the operation executed by the current thread, or null if none */
+  public static ZoomOperationContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * @param task Task to be run on another thread on behalf of the current operation
+   * @return Task that runs with the context of the current operation
+   */
+  public static Runnable propagate(Runnable task) {
+    return propagate(CURRENT.get(), task);
+  }
+
+  /**
+   * @param context Context of the operation on whose behalf the task runs, or null if none
+   * @param task Task to be run on another thread
+   * @return Task that runs with the given context
+   */
+  static Runnable propagate(ZoomOperationContext context, Runnable task) {
+    if (context == null) {
+      return task;
+    }
+    return () -> {
+      ZoomOperationContext previous = CURRENT.get();
+      CURRENT.set(context);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          CURRENT.remove();
+        } else {
+          CURRENT.set(previous);
+        }
+      }
+    };
+  }
+
+  /**
+   * @param attributes Attributes that need the data in question
+   * @return true if any of the attributes is to be returned by the current operation. When no
+   *     operation is running or the operation did not restrict the attributes to get, all
+   *     attributes are considered requested.
+   */
+  public static boolean isAnyAttributeRequested(Set<? extends Enum<?>> attributes) {
+    ZoomOperationContext context = CURRENT.get();
+    if (context == null || context.attributesToGet == null) {
+      return true;
+    }
+    for (Enum<?> attribute : attributes) {
+      if (context.attributesToGet.contains(attribute.name())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if the current thread runs a create, update or delete operation, which must read
+   *     the current state of the objects it changes from Zoom rather than from cached data
+   */
+  public static boolean isWriteOperation() {
+    ZoomOperationContext context = CURRENT.get();
+    return context != null
+        && !"search".equals(context.operation)
+        && !"get".equals(context.operation);
+  }
+
+  /**
+   * @param attribute Attribute that is not returned by default
+   * @return true if the current operation explicitly asked for the attribute to be returned
+   */
+  public static boolean isAttributeExplicitlyRequested(Enum<?> attribute) {
+    ZoomOperationContext context = CURRENT.get();
+    return context != null
+        && context.attributesToGet != null
+        && context.attributesToGet.contains(attribute.name());
+  }
+
+  /**
+   * Takes one retry from the budget of the current operation.
+   *
+   * @param budget Number of retries allowed per operation
+   * @return true if the retry is allowed. Requests made outside of an operation are not limited.
+   */
+  public static boolean tryConsumeRetry(int budget) {
+    ZoomOperationContext context = CURRENT.get();
+    if (context == null) {
+      return true;
+    }
+    int used;
+    do {
+      used = context.retries.get();
+      if (used >= budget) {
+        return false;
+      }
+    } while (!context.retries.compareAndSet(used, used + 1));
+    return true;
+  }
+
+  /** @return Number of retries made so far by this operation */
+  public int getRetries() {
+    return retries.get();
+  }
+
+  /**
+   * Records a Zoom API call made by the current operation.
+   *
+   * @param template Endpoint template of the call
+   * @param status Http status of the response
+   * @param nanos Number of nanoseconds until the response was received
+   * @return Counter of the bytes read from the response body, or null outside of an operation
+   */
+  static LongAdder recordCall(String template, int status, long nanos) {
+    ZoomOperationContext context = CURRENT.get();
+    return context == null ? null : context.trace.record(template, status, nanos);
+  }
+
+  /** Records the time the current operation waited for the rate limiter. */
+  static void recordRateLimitWait(long nanos) {
+    ZoomOperationContext context = CURRENT.get();
+    if (context != null) {
+      context.trace.recordRateLimitWait(nanos);
+    }
+  }
+
+  /** @return Number of Zoom API calls made so far by this operation */
+  public long getCallCount() {
+    return trace.getCallCount();
+  }
+
+  /**
+   * Logs the Zoom API calls of this operation as one line of key=value pairs. The line is logged as
+   * a warning when the operation made more calls than the budget.
+   *
+   * @param callBudget Number of calls expected at most from the operation, 0 for no limit
+   * @return true if the operation made more calls than the budget
+   */
+  public boolean logTrace(int callBudget) {
+    boolean overBudget = callBudget > 0 && getCallCount() > callBudget;
+    String line =
+        String.format(
+            "operation=%s objectClass=%s elapsedMs=%d retries=%d %s",
+            operation,
+            objectClass,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+            getRetries(),
+            trace.getSummary());
+    if (overBudget) {
+      Logger.warn(this, String.format("overBudget=true callBudget=%d %s", callBudget, line));
+    } else {
+      Logger.info(this, line);
+    }
+    return overBudget;
+  }
+
+  /** @return true if the current operation needs the Zoom Phone profile of users */
+  public static boolean isPhoneDataRequested() {
+    return isAnyAttributeRequested(PHONE_ATTRIBUTES);
+  }
+
+  /** @return true if the current operation needs the name or code of the Zoom Phone site */
+  public static boolean isPhoneSiteRequested() {
+    return isAnyAttributeRequested(SITE_ATTRIBUTES);
+  }
+}
@@ -0,0 +1,103 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zoom API calls made on behalf of one connector operation, counted per endpoint template with
+ * their response times, status codes and bytes read. Calls may be recorded by the background
+ * threads working for the operation.
+ */
+class ZoomOperationTrace {
+
+  private final Map<String, Calls> calls = new ConcurrentHashMap<>();
+  private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+  private final LongAdder rateLimitWaitNanos = new LongAdder();
+
+  /**
+   * @param template Endpoint template of the call
+   * @param status Http status of the response
+   * @param nanos Number of nanoseconds until the response was received
+   * @return Counter of the bytes read from the response body
+   */
+  LongAdder record(String template, int status, long nanos) {
+    Calls endpoint = calls.computeIfAbsent(template, key -> new Calls());
+    endpoint.count.increment();
+    endpoint.nanos.add(nanos);
+    statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+    return endpoint.bytesRead;
+  }
+
+  void recordRateLimitWait(long nanos) {
+    rateLimitWaitNanos.add(nanos);
+  }
+
+  long getCallCount() {
+    return calls.values().stream().mapToLong(endpoint -> endpoint.count.sum()).sum();
+  }
+
+  /**
+   * @return Calls as key=value pairs, followed by the endpoints sorted by number of calls, such as
+   *     "calls=3 apiMs=240 rateLimitWaitMs=0 bytes=5120 statuses={200=3} endpoints={GET
+   *     /users/{id}=2/160ms, GET /phone/users/{id}=1/80ms}"
+   */
+  String getSummary() {
+    List<Map.Entry<String, Calls>> endpoints = new ArrayList<>(calls.entrySet());
+    endpoints.sort(
+        Comparator.comparingLong((Map.Entry<String, Calls> entry) -> entry.getValue().count.sum())
+            .reversed());
+    long nanos = 0L;
+    long bytes = 0L;
+    StringBuilder endpointSummary = new StringBuilder();
+    for (Map.Entry<String, Calls> entry : endpoints) {
+      Calls endpoint = entry.getValue();
+      nanos += endpoint.nanos.sum();
+      bytes += endpoint.bytesRead.sum();
+      if (endpointSummary.length() > 0) {
+        endpointSummary.append(", ");
+      }
+      endpointSummary
+          .append(entry.getKey())
+          .append('=')
+          .append(endpoint.count.sum())
+          .append('/')
+          .append(TimeUnit.NANOSECONDS.toMillis(endpoint.nanos.sum()))
+          .append("ms");
+    }
+    Map<Integer, Long> statuses = new TreeMap<>();
+    statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+    return String.format(
+        "calls=%d apiMs=%d rateLimitWaitMs=%d bytes=%d statuses=%s endpoints={%s}",
+        getCallCount(),
+        TimeUnit.NANOSECONDS.toMillis(nanos),
+        TimeUnit.NANOSECONDS.toMillis(rateLimitWaitNanos.sum()),
+        bytes,
+        statuses,
+        endpointSummary);
+  }
+
+  /** Calls made to one endpoint template. */
+  private static final class Calls {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+  }
+}
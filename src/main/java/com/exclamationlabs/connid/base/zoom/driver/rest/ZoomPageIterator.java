@@ -0,0 +1,144 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.driver.rest.RestRequest;
+import com.exclamationlabs.connid.base.zoom.model.response.TokenPagedResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Walks a Zoom list endpoint one page at a time by following the next_page_token returned with each
+ * page. Only the page most recently returned by {@link #next()} is referenced by the iterator.
+ *
+ * @param <R> Response type of the list endpoint
+ */
+public class ZoomPageIterator<R extends TokenPagedResponse> implements Iterator<R> {
+
+  private final ZoomDriver driver;
+  private final Class<R> responseType;
+  private final String requestUri;
+  private final int pageSize;
+
+  private int readAheadDepth = 0;
+  private String nextPageToken;
+  private boolean started = false;
+  private boolean finished = false;
+
+  /**
+   * @param zoomDriver Driver used to execute the page requests
+   * @param responseTypeInput Class of the list response
+   * @param requestUriInput Uri of the list endpoint, which may already contain query parameters
+   * @param pageSizeInput Number of records requested per page
+   */
+  public ZoomPageIterator(
+      ZoomDriver zoomDriver,
+      Class<R> responseTypeInput,
+      String requestUriInput,
+      int pageSizeInput) {
+    this(zoomDriver, responseTypeInput, requestUriInput, pageSizeInput, null);
+  }
+
+  /**
+   * @param zoomDriver Driver used to execute the page requests
+   * @param responseTypeInput Class of the list response
+   * @param requestUriInput Uri of the list endpoint, which may already contain query parameters
+   * @param pageSizeInput Number of records requested per page
+   * @param startToken next_page_token of the first page to read, or null to start at the beginning
+   */
+  public ZoomPageIterator(
+      ZoomDriver zoomDriver,
+      Class<R> responseTypeInput,
+      String requestUriInput,
+      int pageSizeInput,
+      String startToken) {
+    driver = zoomDriver;
+    responseType = responseTypeInput;
+    requestUri = requestUriInput;
+    pageSize = pageSizeInput;
+    nextPageToken = startToken;
+  }
+
+  /**
+   * Enables reading pages ahead of the caller through the driver's {@link ZoomPagePrefetcher}.
+   *
+   * @param depth Number of pages to request ahead of the page being returned, 0 to disable
+   * @return This iterator
+   */
+  public ZoomPageIterator<R> withReadAhead(int depth) {
+    readAheadDepth = depth;
+    return this;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !finished && (!started || StringUtils.isNotBlank(nextPageToken));
+  }
+
+  @Override
+  public R next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    String requestUri = buildPageUri(nextPageToken);
+    R page = null;
+    if (readAheadDepth > 0) {
+      page = driver.getPagePrefetcher().claim(responseType, requestUri);
+    }
+    if (page == null) {
+      page =
+          driver
+              .executeRequest(
+                  new RestRequest.Builder<>(responseType)
+                      .withGet()
+                      .withRequestUri(requestUri)
+                      .build())
+              .getResponseObject();
+    }
+    started = true;
+    if (page == null) {
+      finished = true;
+      nextPageToken = null;
+    } else {
+      nextPageToken = page.getNextPageToken();
+    }
+    if (readAheadDepth > 0 && StringUtils.isNotBlank(nextPageToken)) {
+      driver
+          .getPagePrefetcher()
+          .prefetch(responseType, buildPageUri(nextPageToken), readAheadDepth, this::buildPageUri);
+    }
+    return page;
+  }
+
+  /**
+   * @return The next_page_token that will be sent with the next page request, or null when the last
+   *     page has been read.
+   */
+  public String getNextPageToken() {
+    return hasNext() ? nextPageToken : null;
+  }
+
+  private String buildPageUri(String pageToken) {
+    StringBuilder uri = new StringBuilder(requestUri);
+    uri.append(requestUri.contains("?") ? '&' : '?');
+    uri.append("page_size=").append(pageSize);
+    if (StringUtils.isNotBlank(pageToken)) {
+      uri.append("&next_page_token=").append(URLEncoder.encode(pageToken, StandardCharsets.UTF_8));
+    }
+    return uri.toString();
+  }
+}
@@ -0,0 +1,187 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.driver.rest.RestRequest;
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.model.response.TokenPagedResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Requests list pages ahead of the caller so that the network round trip for page N+1 overlaps the
+ * processing of page N. Pages are keyed by their full request uri, which includes the page size and
+ * next_page_token, so a prefetched page is only handed to a caller asking for exactly that page.
+ * Pages that are not claimed within a few minutes are discarded. Prefetches run on a bounded pool
+ * of threads, and a caller waits a limited time for a pending page before requesting it itself.
+ */
+public class ZoomPagePrefetcher {
+
+  private static final long UNCLAIMED_PAGE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  private static final int MAX_PENDING_PAGES = 32;
+  private static final int MAX_PREFETCH_THREADS = 8;
+  private static final long CLAIM_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+  private final ZoomDriver driver;
+  private final Map<String, PendingPage> pendingPages = new ConcurrentHashMap<>();
+  private ThreadPoolExecutor executor;
+
+  public ZoomPagePrefetcher(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * Starts fetching a page in the background unless it is already pending.
+   *
+   * @param responseType Class of the list response
+   * @param requestUri Full uri of the page, including page_size and next_page_token
+   * @param depth Number of pages to read ahead, this page included. Each prefetched page that has a
+   *     next_page_token schedules the following page with one less page of depth.
+   * @param nextPageUri Function that builds the uri of the following page from a next_page_token
+   */
+  public <R extends TokenPagedResponse> void prefetch(
+      Class<R> responseType, String requestUri, int depth, Function<String, String> nextPageUri) {
+    if (depth <= 0) {
+      return;
+    }
+    discardUnclaimedPages();
+    if (pendingPages.size() >= MAX_PENDING_PAGES) {
+      return;
+    }
+    PendingPage pending = new PendingPage();
+    if (pendingPages.putIfAbsent(requestUri, pending) != null) {
+      return;
+    }
+    try {
+      getExecutor()
+          .execute(
+              ZoomOperationContext.propagate(
+                  () -> {
+                    try {
+                      R page = readPage(responseType, requestUri);
+                      // the following page is pending before this one is handed over, so that
+                      // the caller finds it when it asks for it
+                      if (page != null && StringUtils.isNotBlank(page.getNextPageToken())) {
+                        prefetch(
+                            responseType,
+                            nextPageUri.apply(page.getNextPageToken()),
+                            depth - 1,
+                            nextPageUri);
+                      }
+                      pending.page.complete(page);
+                    } catch (RuntimeException e) {
+                      pending.page.completeExceptionally(e);
+                    }
+                  }));
+    } catch (RejectedExecutionException e) {
+      // the pool is shutting down, the caller requests the page itself
+      pendingPages.remove(requestUri, pending);
+    }
+  }
+
+  /**
+   * Returns a prefetched page and removes it from this prefetcher.
+   *
+   * @param responseType Class of the list response
+   * @param requestUri Full uri of the page
+   * @return The page, or null if the page was not prefetched, the prefetch failed or did not
+   *     complete in time, in which case the caller should request the page itself.
+   */
+  public <R> R claim(Class<R> responseType, String requestUri) {
+    PendingPage pending = pendingPages.remove(requestUri);
+    if (pending == null) {
+      return null;
+    }
+    try {
+      return responseType.cast(pending.page.get(getClaimTimeoutMillis(), TimeUnit.MILLISECONDS));
+    } catch (TimeoutException e) {
+      Logger.warn(
+          this,
+          String.format(
+              "Prefetch of %s did not complete within %d milliseconds, requesting page again",
+              requestUri, getClaimTimeoutMillis()));
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      Logger.warn(
+          this,
+          String.format("Prefetch of %s failed, requesting page again", requestUri),
+          e.getCause());
+      return null;
+    }
+  }
+
+  /** Discards all pending pages and stops the background threads. */
+  public synchronized void shutdown() {
+    pendingPages.clear();
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /** @return Longest number of milliseconds a caller waits for a pending page */
+  long getClaimTimeoutMillis() {
+    return CLAIM_TIMEOUT_MILLIS;
+  }
+
+  /** Requests a page from Zoom. */
+  <R> R readPage(Class<R> responseType, String requestUri) {
+    return driver
+        .executeRequest(
+            new RestRequest.Builder<>(responseType).withGet().withRequestUri(requestUri).build())
+        .getResponseObject();
+  }
+
+  private void discardUnclaimedPages() {
+    long now = System.currentTimeMillis();
+    pendingPages
+        .entrySet()
+        .removeIf(entry -> now - entry.getValue().createdAt > UNCLAIMED_PAGE_TIMEOUT_MILLIS);
+  }
+
+  private synchronized ThreadPoolExecutor getExecutor() {
+    if (executor == null) {
+      executor =
+          new ThreadPoolExecutor(
+              MAX_PREFETCH_THREADS,
+              MAX_PREFETCH_THREADS,
+              60L,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "zoom-page-prefetch");
+                thread.setDaemon(true);
+                return thread;
+              });
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  private static class PendingPage {
+    private final long createdAt = System.currentTimeMillis();
+    private final CompletableFuture<Object> page = new CompletableFuture<>();
+  }
+}
@@ -0,0 +1,267 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.driver.rest.RestRequest;
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
+import com.exclamationlabs.connid.base.zoom.model.ZoomCallingPlan;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneBatchUser;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneSite;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneUserProfile;
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import com.exclamationlabs.connid.base.zoom.model.request.BatchAddUsers;
+import com.exclamationlabs.connid.base.zoom.model.response.ListCallingPlansResponse;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+
+/**
+ * Provisions the Zoom Phone profile of created users through POST /phone/users/batch. Users created
+ * concurrently through the same driver are queued together, so that a single batch request sets the
+ * extension, phone numbers, calling plans and site of up to ten users. A user created while no
+ * batch request is being sent is provisioned at once. The queue belongs to the driver, so that its
+ * requests use the client, rate limiter and retry budget of that driver.
+ *
+ * <p>Zoom does not document how the batch endpoint treats a user that exists but is still pending
+ * activation. When the batch response lists users and a created user is not among them, that user
+ * is reported as not provisioned, so that the create falls back to per-user requests.
+ */
+public class ZoomPhoneBatchProvisioner {
+
+  /** Largest number of users accepted by POST /phone/users/batch. */
+  private static final int MAX_BATCH_SIZE = 10;
+
+  private static final int DEFAULT_BATCH_SIZE = 10;
+  private static final int DEFAULT_BATCH_WINDOW = 2000;
+
+  /** Result of a user left out of a batch response that lists the provisioned users. */
+  private static final String NOT_LISTED = "";
+
+  private final Map<String, ZoomBatchQueue<ZoomPhoneBatchUser, String>> queues =
+      new ConcurrentHashMap<>();
+
+  private final ZoomDriver driver;
+
+  private volatile Map<Integer, String> callingPlanNames = Collections.emptyMap();
+  private volatile long callingPlansLoadedAt = 0L;
+
+  public ZoomPhoneBatchProvisioner(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /** @return true if batch provisioning is enabled by the Phone Batch Provisioning setting */
+  public boolean isEnabled() {
+    return driver.getConfiguration() != null
+        && BooleanUtils.isTrue(driver.getConfiguration().getPhoneBatchProvisioning());
+  }
+
+  /**
+   * @param user User being created
+   * @return true if the user has Zoom Phone data to provision
+   */
+  public boolean hasPhoneData(ZoomUser user) {
+    ZoomPhoneUserProfile profile = user.getPhoneProfile();
+    boolean hasProfile =
+        profile != null
+            && (StringUtils.isNotBlank(profile.getExtension())
+                || (profile.getPhones() != null && !profile.getPhones().isEmpty())
+                || (profile.getPlans() != null && !profile.getPlans().isEmpty()));
+    boolean hasSite =
+        user.getSite() != null
+            && (StringUtils.isNotBlank(user.getSite().getId())
+                || StringUtils.isNotBlank(user.getSite().getName())
+                || user.getSite().getCode() != null);
+    return hasProfile || hasSite;
+  }
+
+  /**
+   * Queues the Zoom Phone data of a created user and waits until its batch has been sent.
+   *
+   * @param user User that was created
+   * @throws ConnectorException if the batch could not be sent, or if its response leaves the user
+   *     out
+   */
+  public void provision(ZoomUser user) throws ConnectorException {
+    String id = getQueue().submit(toBatchUser(user));
+    if (NOT_LISTED.equals(id)) {
+      throw new ConnectorException(
+          "Zoom Phone batch response does not list user " + user.getEmail());
+    }
+  }
+
+  private ZoomBatchQueue<ZoomPhoneBatchUser, String> getQueue() {
+    ZoomConfiguration configuration = driver.getConfiguration();
+    Integer size = configuration.getPhoneBatchSize();
+    Integer window = configuration.getPhoneBatchWindow();
+    int batchSize = Math.min(size == null || size <= 0 ? DEFAULT_BATCH_SIZE : size, MAX_BATCH_SIZE);
+    int batchWindow = window == null || window < 0 ? DEFAULT_BATCH_WINDOW : window;
+    return queues.computeIfAbsent(
+        batchSize + "|" + batchWindow,
+        k ->
+            new ZoomBatchQueue<>(
+                batchSize, batchWindow, driver.getBatchFlushExecutor(), this::send));
+  }
+
+  /** Drops the queues of the driver being closed. */
+  public void close() {
+    queues.clear();
+  }
+
+  private ZoomPhoneBatchUser toBatchUser(ZoomUser user) {
+    ZoomPhoneBatchUser batchUser = new ZoomPhoneBatchUser();
+    batchUser.setEmail(user.getEmail());
+    batchUser.setFirstName(user.getFirstName());
+    batchUser.setLastName(user.getLastName());
+    ZoomPhoneUserProfile profile = user.getPhoneProfile();
+    if (profile != null) {
+      batchUser.setExtensionNumber(StringUtils.trimToNull(profile.getExtension()));
+      if (profile.getPhones() != null && !profile.getPhones().isEmpty()) {
+        batchUser.setPhone_numbers(new ArrayList<>(profile.getPhones()));
+      }
+      if (profile.getPlans() != null && !profile.getPlans().isEmpty()) {
+        List<String> plans = new ArrayList<>();
+        for (Integer type : profile.getPlans()) {
+          plans.add(getCallingPlanName(type));
+        }
+        batchUser.setCalling_plans(plans);
+      }
+    }
+    ZoomPhoneSite site = user.getSite();
+    if (site != null && StringUtils.isNotBlank(site.getId())) {
+      site = driver.getPhoneSiteCache().getById(site.getId());
+      if (site == null) {
+        throw new InvalidAttributeValueException(
+            "Unknown Zoom Phone site id " + user.getSite().getId());
+      }
+    }
+    if (site != null) {
+      batchUser.setSiteCode(site.getCode() == null ? null : String.valueOf(site.getCode()));
+      batchUser.setSiteName(StringUtils.trimToNull(site.getName()));
+    }
+    return batchUser;
+  }
+
+  /** @return Name of the calling plan type, as expected by the batch endpoint */
+  private String getCallingPlanName(Integer type) {
+    String name = callingPlanNames.get(type);
+    if (name == null
+        && System.currentTimeMillis() - callingPlansLoadedAt >= driver.getCacheTimeToLiveMillis()) {
+      loadCallingPlans();
+      name = callingPlanNames.get(type);
+    }
+    if (name == null) {
+      throw new InvalidAttributeValueException("Unknown Zoom Phone calling plan type " + type);
+    }
+    return name;
+  }
+
+  private synchronized void loadCallingPlans() {
+    ListCallingPlansResponse response =
+        driver
+            .executeRequest(
+                new RestRequest.Builder<>(ListCallingPlansResponse.class)
+                    .withGet()
+                    .withRequestUri("/phone/calling_plans")
+                    .build())
+            .getResponseObject();
+    Map<Integer, String> names = new HashMap<>();
+    if (response != null && response.getCallingPlans() != null) {
+      for (ZoomCallingPlan plan : response.getCallingPlans()) {
+        if (plan.getType() != null && plan.getName() != null) {
+          names.put(plan.getType(), plan.getName());
+        }
+      }
+    }
+    callingPlanNames = names;
+    callingPlansLoadedAt = System.currentTimeMillis();
+  }
+
+  /**
+   * Sends a batch of users to Zoom Phone.
+   *
+   * @return Zoom user id of each user, in the order of the users, when returned by Zoom. {@link
+   *     #NOT_LISTED} for a user left out of a response that lists users.
+   */
+  private List<String> send(List<ZoomPhoneBatchUser> users) {
+    String body =
+        driver
+            .executeRequest(
+                new RestRequest.Builder<>(String.class)
+                    .withPost()
+                    .withRequestUri("/phone/users/batch")
+                    .withRequestBody(new BatchAddUsers(users))
+                    .build())
+            .getResponseObject();
+    Logger.info(
+        this,
+        String.format("Provisioned %d Zoom Phone users with one batch request", users.size()));
+
+    Map<String, String> idsByEmail = readUserIds(body);
+    List<String> ids = new ArrayList<>(users.size());
+    for (ZoomPhoneBatchUser user : users) {
+      if (idsByEmail == null || user.getEmail() == null) {
+        ids.add(null);
+      } else {
+        ids.add(idsByEmail.getOrDefault(user.getEmail().toLowerCase(Locale.ROOT), NOT_LISTED));
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * @return Zoom user ids keyed by lower case email, read from the batch response, or null if the
+   *     response does not list users
+   */
+  private static Map<String, String> readUserIds(String body) {
+    if (StringUtils.isBlank(body)) {
+      return null;
+    }
+    Map<String, String> ids = null;
+    try {
+      JsonElement root = JsonParser.parseString(body);
+      if (root.isJsonObject() && root.getAsJsonObject().has("users")) {
+        root = root.getAsJsonObject().get("users");
+      }
+      if (root.isJsonArray()) {
+        ids = new HashMap<>();
+        for (JsonElement element : root.getAsJsonArray()) {
+          if (element.isJsonObject()) {
+            JsonObject user = element.getAsJsonObject();
+            if (user.has("email") && user.has("id")) {
+              ids.put(
+                  user.get("email").getAsString().toLowerCase(Locale.ROOT),
+                  user.get("id").getAsString());
+            }
+          }
+        }
+      }
+    } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+      // the ids are informational, the users were provisioned
+      return null;
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneSite;
+import com.exclamationlabs.connid.base.zoom.model.response.ListSitesResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds the Zoom Phone sites of the account indexed by site id and by case-folded site name, so
+ * that resolving the site of a phone user does not require a GET /phone/sites request. The index is
+ * reloaded once the configured cache time to live has elapsed, when a lookup misses, or after
+ * {@link #invalidate()} has been called.
+ */
+public class ZoomPhoneSiteCache {
+
+  /** Largest page_size accepted by GET /phone/sites. */
+  private static final int MAX_PAGE_SIZE = 300;
+
+  /** Minimum time between two reloads caused by a lookup that did not match any site. */
+  private static final long MISS_RELOAD_INTERVAL_MILLIS = 30000L;
+
+  private final ZoomDriver driver;
+
+  private volatile Map<String, ZoomPhoneSite> sitesById = Collections.emptyMap();
+  private volatile Map<String, ZoomPhoneSite> sitesByName = Collections.emptyMap();
+  private volatile long loadedAt = 0L;
+
+  public ZoomPhoneSiteCache(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  public ZoomPhoneSite getById(String siteId) {
+    if (siteId == null || siteId.trim().isEmpty()) {
+      return null;
+    }
+    String key = siteId.trim();
+    ensureLoaded();
+    ZoomPhoneSite site = sitesById.get(key);
+    if (site == null && reloadAfterMiss()) {
+      site = sitesById.get(key);
+    }
+    return site;
+  }
+
+  public ZoomPhoneSite getByName(String siteName) {
+    if (siteName == null || siteName.trim().isEmpty()) {
+      return null;
+    }
+    String key = foldName(siteName);
+    ensureLoaded();
+    ZoomPhoneSite site = sitesByName.get(key);
+    if (site == null && reloadAfterMiss()) {
+      site = sitesByName.get(key);
+    }
+    return site;
+  }
+
+  /** Discards the cached sites so that the next lookup reloads them from Zoom. */
+  public void invalidate() {
+    loadedAt = 0L;
+  }
+
+  private void ensureLoaded() {
+    long age = System.currentTimeMillis() - loadedAt;
+    if (loadedAt == 0L || age >= driver.getCacheTimeToLiveMillis()) {
+      synchronized (this) {
+        age = System.currentTimeMillis() - loadedAt;
+        if (loadedAt == 0L || age >= driver.getCacheTimeToLiveMillis()) {
+          load();
+        }
+      }
+    }
+  }
+
+  private synchronized boolean reloadAfterMiss() {
+    if (System.currentTimeMillis() - loadedAt < getMissReloadIntervalMillis()) {
+      return false;
+    }
+    load();
+    return true;
+  }
+
+  /** @return Minimum number of milliseconds between two reloads caused by a lookup miss */
+  long getMissReloadIntervalMillis() {
+    return MISS_RELOAD_INTERVAL_MILLIS;
+  }
+
+  /** Reads all the Zoom Phone sites of the account from Zoom. */
+  List<ZoomPhoneSite> readSites() {
+    List<ZoomPhoneSite> sites = new ArrayList<>();
+    ZoomPageIterator<ListSitesResponse> pages =
+        new ZoomPageIterator<>(driver, ListSitesResponse.class, "/phone/sites", MAX_PAGE_SIZE);
+    while (pages.hasNext()) {
+      ListSitesResponse page = pages.next();
+      if (page != null && page.getSites() != null) {
+        sites.addAll(page.getSites());
+      }
+    }
+    return sites;
+  }
+
+  private void load() {
+    Map<String, ZoomPhoneSite> byId = new HashMap<>();
+    Map<String, ZoomPhoneSite> byName = new HashMap<>();
+    for (ZoomPhoneSite site : readSites()) {
+      if (site.getId() != null) {
+        byId.put(site.getId().trim(), site);
+      }
+      if (site.getName() != null) {
+        byName.put(foldName(site.getName()), site);
+      }
+    }
+    sitesById = byId;
+    sitesByName = byName;
+    loadedAt = System.currentTimeMillis();
+    Logger.info(this, String.format("Loaded %d Zoom Phone sites", byId.size()));
+  }
+
+  private static String foldName(String siteName) {
+    return siteName.trim().toLowerCase(Locale.ROOT);
+  }
+}
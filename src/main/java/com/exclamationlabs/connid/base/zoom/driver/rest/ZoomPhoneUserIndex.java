@@ -0,0 +1,172 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import com.exclamationlabs.connid.base.zoom.model.ZoomFeature;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneSite;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneUser;
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import com.exclamationlabs.connid.base.zoom.model.response.ListPhoneUsersResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+/**
+ * Index of all Zoom Phone users of the account keyed by user id, built from the paged GET
+ * /phone/users listing. Once loaded, the phone profile of any user can be joined in memory: users
+ * absent from the index have no Zoom Phone and need no further request. The index expires after the
+ * configured cache time to live. Users whose phone data is changed by the connector are evicted,
+ * and are looked up individually until the next load.
+ */
+public class ZoomPhoneUserIndex {
+
+  /** Largest page_size accepted by GET /phone/users. */
+  private static final int MAX_PAGE_SIZE = 100;
+
+  private final ZoomDriver driver;
+  private final Set<String> evictedUserIds = ConcurrentHashMap.newKeySet();
+
+  private volatile Map<String, ZoomPhoneUser> phoneUsers = Collections.emptyMap();
+  private volatile long loadedAt = 0L;
+  private volatile boolean unavailable = false;
+
+  public ZoomPhoneUserIndex(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * Loads the index unless it is already loaded and has not expired. If Zoom Phone cannot be listed
+   * for the account, the index stays unavailable until the cache time to live has elapsed.
+   */
+  public void ensureLoaded() {
+    if (!isExpired()) {
+      return;
+    }
+    synchronized (this) {
+      if (isExpired()) {
+        load();
+      }
+    }
+  }
+
+  /**
+   * @param userId Zoom user id
+   * @return true if the index is loaded and holds current phone data for this user, including the
+   *     fact that the user has no Zoom Phone.
+   */
+  public boolean covers(String userId) {
+    return !unavailable && !isExpired() && userId != null && !evictedUserIds.contains(userId);
+  }
+
+  /**
+   * Sets the phone profile, Zoom Phone feature and site of the user from the index. Users without
+   * Zoom Phone are left unchanged. The site code is only looked up when the current operation
+   * requests the site name or code.
+   *
+   * @param user User to complete, whose id must be covered by the index
+   */
+  public void join(ZoomUser user) {
+    ZoomPhoneUser phoneUser = phoneUsers.get(user.getId());
+    if (phoneUser == null) {
+      return;
+    }
+    ZoomFeature feature = new ZoomFeature();
+    feature.setZoomPhone(true);
+    user.setFeature(feature);
+    user.setPhoneProfile(phoneUser);
+    ZoomPhoneSite site = null;
+    if (ZoomOperationContext.isPhoneSiteRequested()) {
+      site = driver.getPhoneSiteCache().getById(phoneUser.getSiteId());
+    }
+    user.setSite(site != null ? site : phoneUser.getSite());
+  }
+
+  /**
+   * Joins the phone data of the users covered by the index.
+   *
+   * @param users Users of a listing page
+   */
+  public void joinAll(Collection<ZoomUser> users) {
+    if (users == null) {
+      return;
+    }
+    for (ZoomUser user : users) {
+      if (user != null && covers(user.getId())) {
+        join(user);
+      }
+    }
+  }
+
+  /**
+   * Marks the phone data held for a user as outdated, after the user was created or its phone data
+   * was changed.
+   */
+  public void evict(String userId) {
+    if (userId != null) {
+      evictedUserIds.add(userId);
+    }
+  }
+
+  /** Discards the index so that it is loaded again when next needed. */
+  public void invalidate() {
+    loadedAt = 0L;
+  }
+
+  private boolean isExpired() {
+    return loadedAt == 0L
+        || System.currentTimeMillis() - loadedAt >= driver.getCacheTimeToLiveMillis();
+  }
+
+  /** Reads all the Zoom Phone users of the account from Zoom. */
+  List<ZoomPhoneUser> readPhoneUsers() {
+    List<ZoomPhoneUser> phoneUsers = new ArrayList<>();
+    ZoomPageIterator<ListPhoneUsersResponse> pages =
+        new ZoomPageIterator<>(driver, ListPhoneUsersResponse.class, "/phone/users", MAX_PAGE_SIZE);
+    while (pages.hasNext()) {
+      ListPhoneUsersResponse page = pages.next();
+      if (page != null && page.getUsers() != null) {
+        phoneUsers.addAll(page.getUsers());
+      }
+    }
+    return phoneUsers;
+  }
+
+  private void load() {
+    Map<String, ZoomPhoneUser> loaded = new HashMap<>();
+    try {
+      for (ZoomPhoneUser phoneUser : readPhoneUsers()) {
+        if (phoneUser.getId() != null) {
+          loaded.put(phoneUser.getId(), phoneUser);
+        }
+      }
+      unavailable = false;
+    } catch (ConnectorException e) {
+      Logger.warn(
+          this,
+          "Unable to list Zoom Phone users, phone data will be retrieved for each user instead",
+          e);
+      unavailable = true;
+    }
+    phoneUsers = loaded;
+    evictedUserIds.clear();
+    loadedAt = System.currentTimeMillis();
+    Logger.info(this, String.format("Loaded %d Zoom Phone users", loaded.size()));
+  }
+}
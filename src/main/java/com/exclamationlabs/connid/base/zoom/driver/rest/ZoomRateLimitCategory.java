@@ -0,0 +1,42 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+/** Rate limit categories that Zoom assigns to its API endpoints. */
+public enum ZoomRateLimitCategory {
+  LIGHT,
+  MEDIUM,
+  HEAVY;
+
+  /**
+   * @param headerValue Value of the X-RateLimit-Category response header
+   * @return Matching category, or null if the value is not recognized. Resource-intensive endpoints
+   *     are paced as Heavy ones.
+   */
+  public static ZoomRateLimitCategory fromHeader(String headerValue) {
+    if (headerValue == null) {
+      return null;
+    }
+    String value = headerValue.trim();
+    if (value.equalsIgnoreCase("Light")) {
+      return LIGHT;
+    }
+    if (value.equalsIgnoreCase("Medium")) {
+      return MEDIUM;
+    }
+    if (value.equalsIgnoreCase("Heavy") || value.equalsIgnoreCase("Resource-intensive")) {
+      return HEAVY;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,220 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Paces the requests sent to Zoom with one token bucket per rate limit category, so that bulk
+ * operations run close to the account limits without causing bursts of 429 responses.
+ *
+ * <p>The category of each endpoint is first guessed from its uri template and then learned from the
+ * X-RateLimit-Category response header. A 429 response halves the rate of its category and pauses
+ * it for the delay given by the Retry-After header. The rate then grows back with each successful
+ * response up to the configured limit.
+ */
+public class ZoomRateLimiter implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+  static final String TEMPLATE_ATTRIBUTE = "zoom.endpointTemplate";
+  static final String CATEGORY_ATTRIBUTE = "zoom.rateLimitCategory";
+
+  /** Pause applied after a 429 response without a usable Retry-After header. */
+  private static final long DEFAULT_PAUSE_MILLIS = 1000L;
+
+  /** Longest pause applied to a category, daily limits are not waited for. */
+  private static final long MAX_PAUSE_MILLIS = 60000L;
+
+  private final ZoomDriver driver;
+  private final Map<ZoomRateLimitCategory, TokenBucket> buckets =
+      new EnumMap<>(ZoomRateLimitCategory.class);
+  private final Map<String, ZoomRateLimitCategory> learnedCategories = new ConcurrentHashMap<>();
+
+  public ZoomRateLimiter(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  @Override
+  public void process(HttpRequest request, HttpContext context) throws InterruptedIOException {
+    String template =
+        ZoomApiEndpoint.getTemplate(
+            request.getRequestLine().getMethod(), request.getRequestLine().getUri());
+    ZoomRateLimitCategory category = learnedCategories.get(template);
+    if (category == null) {
+      category = ZoomApiEndpoint.getDefaultCategory(template);
+    }
+    context.setAttribute(TEMPLATE_ATTRIBUTE, template);
+    context.setAttribute(CATEGORY_ATTRIBUTE, category);
+    try {
+      driver.getApiMetrics().recordRateLimitWait(template, getBucket(category).acquire());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the Zoom API rate limit");
+    }
+  }
+
+  @Override
+  public void process(HttpResponse response, HttpContext context) {
+    String template = (String) context.getAttribute(TEMPLATE_ATTRIBUTE);
+    ZoomRateLimitCategory category =
+        (ZoomRateLimitCategory) context.getAttribute(CATEGORY_ATTRIBUTE);
+    if (template == null || category == null) {
+      return;
+    }
+    ZoomRateLimitCategory reported =
+        ZoomRateLimitCategory.fromHeader(getHeader(response, "X-RateLimit-Category"));
+    if (reported != null && reported != category) {
+      learnedCategories.put(template, reported);
+      category = reported;
+    }
+    TokenBucket bucket = getBucket(category);
+    if (response.getStatusLine().getStatusCode() == 429) {
+      long pause = getRetryAfterMillis(response);
+      String limitType = getHeader(response, "X-RateLimit-Type");
+      if (pause > MAX_PAUSE_MILLIS) {
+        Logger.warn(
+            this,
+            String.format(
+                "Zoom %s rate limit reached for %s, retry possible in %d seconds",
+                limitType, template, TimeUnit.MILLISECONDS.toSeconds(pause)));
+        pause = MAX_PAUSE_MILLIS;
+      }
+      bucket.throttle(pause);
+      Logger.info(
+          this,
+          String.format(
+              "Zoom %s rate limit exceeded for %s, %s requests paused for %d ms",
+              limitType, template, category, pause));
+    } else if ("0".equals(getHeader(response, "X-RateLimit-Remaining"))) {
+      bucket.pause(Math.min(getRetryAfterMillis(response), MAX_PAUSE_MILLIS));
+    } else {
+      bucket.recover();
+    }
+  }
+
+  private synchronized TokenBucket getBucket(ZoomRateLimitCategory category) {
+    return buckets.computeIfAbsent(
+        category, key -> new TokenBucket(driver.getRequestsPerSecond(key)));
+  }
+
+  private static String getHeader(HttpResponse response, String name) {
+    Header header = response.getFirstHeader(name);
+    return header == null ? null : header.getValue();
+  }
+
+  /**
+   * @return Delay given by the Retry-After header as a number of seconds or as an http date, or a
+   *     default delay when the header is absent.
+   */
+  static long getRetryAfterMillis(HttpResponse response) {
+    String retryAfter = getHeader(response, "Retry-After");
+    if (retryAfter == null || retryAfter.trim().isEmpty()) {
+      return DEFAULT_PAUSE_MILLIS;
+    }
+    try {
+      return TimeUnit.SECONDS.toMillis(Math.max(Long.parseLong(retryAfter.trim()), 0L));
+    } catch (NumberFormatException e) {
+      Date date = DateUtils.parseDate(retryAfter.trim());
+      if (date == null) {
+        return DEFAULT_PAUSE_MILLIS;
+      }
+      return Math.max(date.getTime() - System.currentTimeMillis(), 0L);
+    }
+  }
+
+  /** Token bucket whose rate can be lowered temporarily after the limit was exceeded. */
+  static final class TokenBucket {
+
+    /** Lowest rate a bucket is throttled down to, in requests per second. */
+    private static final double MIN_RATE = 1.0;
+
+    /** Share of the configured rate restored by each successful response. */
+    private static final double RECOVERY_STEP = 0.05;
+
+    private final double maxRate;
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+    private long pausedUntil;
+
+    TokenBucket(int requestsPerSecond) {
+      maxRate = Math.max(requestsPerSecond, MIN_RATE);
+      rate = maxRate;
+      tokens = maxRate;
+      refilledAt = System.nanoTime();
+      pausedUntil = refilledAt;
+    }
+
+    /**
+     * Waits until a request may be sent.
+     *
+     * @return Number of nanoseconds waited
+     */
+    long acquire() throws InterruptedException {
+      long waited = 0L;
+      long wait;
+      while ((wait = reserve()) > 0) {
+        TimeUnit.NANOSECONDS.sleep(wait);
+        waited += wait;
+      }
+      return waited;
+    }
+
+    /** @return 0 if a token was taken, otherwise the number of nanoseconds to wait */
+    synchronized long reserve() {
+      long now = System.nanoTime();
+      if (now - pausedUntil < 0) {
+        return pausedUntil - now;
+      }
+      tokens = Math.min(maxRate, tokens + (now - refilledAt) * rate / TimeUnit.SECONDS.toNanos(1));
+      refilledAt = now;
+      if (tokens >= 1.0) {
+        tokens -= 1.0;
+        return 0L;
+      }
+      return (long) Math.ceil((1.0 - tokens) * TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+
+    synchronized void throttle(long pauseMillis) {
+      rate = Math.max(MIN_RATE, rate / 2.0);
+      pause(pauseMillis);
+    }
+
+    synchronized void pause(long pauseMillis) {
+      tokens = 0.0;
+      long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseMillis);
+      if (until - pausedUntil > 0) {
+        pausedUntil = until;
+      }
+      refilledAt = Math.max(refilledAt, pausedUntil);
+    }
+
+    synchronized void recover() {
+      if (rate < maxRate) {
+        rate = Math.min(maxRate, rate + maxRate * RECOVERY_STEP);
+      }
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.connector.logging.Logger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+/**
+ * Retries the Zoom API requests that failed with a transient status, waiting between attempts with
+ * decorrelated jitter backoff.
+ *
+ * <p>A 429 response means that Zoom did not process the request, so it is retried whatever its
+ * method, unless the Retry-After delay shows that a daily limit was reached. 5xx responses are
+ * retried for GET requests, and for PUT, PATCH and DELETE requests sent with {@link
+ * ZoomDriver#executeIdempotentRequest}. The number of retries is bounded per request by the io
+ * error retries setting, and per connector operation by the retry budget setting.
+ */
+public class ZoomRetryStrategy implements ServiceUnavailableRetryStrategy {
+
+  private static final long BASE_DELAY_MILLIS = 500L;
+  private static final long MAX_DELAY_MILLIS = 30000L;
+
+  /** Longest Retry-After delay of a 429 response that is waited for before retrying. */
+  private static final long MAX_RETRY_AFTER_MILLIS = 60000L;
+
+  private static final String DELAY_ATTRIBUTE = "zoom.retryDelay";
+
+  private static final ThreadLocal<Boolean> IDEMPOTENT = new ThreadLocal<>();
+
+  private final ZoomDriver driver;
+  private final ThreadLocal<Long> nextDelay = new ThreadLocal<>();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong exhaustedRetries = new AtomicLong();
+  private final AtomicLong exhaustedBudgets = new AtomicLong();
+
+  public ZoomRetryStrategy(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * Marks the requests sent by the current thread as idempotent, or no longer idempotent.
+   *
+   * @param idempotent true if the requests may be sent more than once
+   */
+  static void setIdempotent(boolean idempotent) {
+    if (idempotent) {
+      IDEMPOTENT.set(Boolean.TRUE);
+    } else {
+      IDEMPOTENT.remove();
+    }
+  }
+
+  @Override
+  public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+    int status = response.getStatusLine().getStatusCode();
+    HttpRequest request = HttpCoreContext.adapt(context).getRequest();
+    if (!isRetryable(status, request)) {
+      return false;
+    }
+    String endpoint = (String) context.getAttribute(ZoomRateLimiter.TEMPLATE_ATTRIBUTE);
+    if (status == 429 && ZoomRateLimiter.getRetryAfterMillis(response) > MAX_RETRY_AFTER_MILLIS) {
+      return false;
+    }
+    int maxRetries = driver.getMaxRetries();
+    if (executionCount > maxRetries) {
+      exhaustedRetries.incrementAndGet();
+      Logger.warn(
+          this,
+          String.format(
+              "Status %d: %s failed after %d retries", status, endpoint, executionCount - 1));
+      return false;
+    }
+    if (!ZoomOperationContext.tryConsumeRetry(driver.getOperationRetryBudget())) {
+      exhaustedBudgets.incrementAndGet();
+      Logger.warn(
+          this,
+          String.format(
+              "Status %d: %s not retried, the retry budget of the operation is exhausted",
+              status, endpoint));
+      return false;
+    }
+    Long previous = (Long) context.getAttribute(DELAY_ATTRIBUTE);
+    long delay = getDelay(previous == null ? BASE_DELAY_MILLIS : previous);
+    context.setAttribute(DELAY_ATTRIBUTE, delay);
+    nextDelay.set(delay);
+    retries.incrementAndGet();
+    driver.getApiMetrics().recordRetry(endpoint);
+    Logger.info(
+        this,
+        String.format(
+            "Status %d: retrying %s in %d ms, retry %d of %d",
+            status, endpoint, delay, executionCount, maxRetries));
+    return true;
+  }
+
+  /** @return Delay before the retry decided by the last call to retryRequest on this thread */
+  @Override
+  public long getRetryInterval() {
+    Long delay = nextDelay.get();
+    nextDelay.remove();
+    return delay == null ? BASE_DELAY_MILLIS : delay;
+  }
+
+  /** @return Number of requests retried since the driver was created */
+  public long getRetries() {
+    return retries.get();
+  }
+
+  /** @return Number of requests that still failed after the maximum number of retries */
+  public long getExhaustedRetries() {
+    return exhaustedRetries.get();
+  }
+
+  /** @return Number of requests not retried because their operation had no retry budget left */
+  public long getExhaustedBudgets() {
+    return exhaustedBudgets.get();
+  }
+
+  private static boolean isRetryable(int status, HttpRequest request) {
+    if (status == 429) {
+      return true;
+    }
+    if (status != 500 && status != 502 && status != 503 && status != 504) {
+      return false;
+    }
+    String method = request == null ? null : request.getRequestLine().getMethod();
+    if ("GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method)) {
+      return true;
+    }
+    return Boolean.TRUE.equals(IDEMPOTENT.get())
+        && ("PUT".equalsIgnoreCase(method)
+            || "PATCH".equalsIgnoreCase(method)
+            || "DELETE".equalsIgnoreCase(method));
+  }
+
+  /** Decorrelated jitter: a random delay between the base delay and three times the last one. */
+  private static long getDelay(long previousDelay) {
+    long upper = Math.max(previousDelay * 3, BASE_DELAY_MILLIS + 1);
+    return Math.min(
+        MAX_DELAY_MILLIS, ThreadLocalRandom.current().nextLong(BASE_DELAY_MILLIS, upper));
+  }
+}
@@ -0,0 +1,154 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+/**
+ * Read-only set whose elements are fetched from Zoom one page at a time, as they are needed. The
+ * first iteration hands each page to the caller as soon as it is read, rather than after the whole
+ * listing has been requested.
+ *
+ * <p>The listing is walked once, and the items read are kept, so that every {@link Set} method
+ * stays valid: further iterations replay the items read and continue the same walk, and {@link
+ * #size()}, {@code contains}, {@code equals} or {@code toString} read the rest of the listing
+ * first. {@link #isEmpty()} only reads the first page. Zoom errors are thrown while the set is
+ * being read, rather than by the invocator that returned it. The walk is closed once its last page
+ * has been read, or when the connector operation that created the set ends, which stops any scan
+ * reading pages ahead.
+ *
+ * @param <T> Type of the listed items
+ */
+public class ZoomStreamingSet<T> extends AbstractSet<T> implements AutoCloseable {
+
+  private final Supplier<Iterator<? extends Collection<T>>> pageSource;
+  private final List<T> items = new ArrayList<>();
+  private final Set<T> distinctItems = new HashSet<>();
+  private Iterator<? extends Collection<T>> pages;
+  private boolean exhausted = false;
+  private boolean closed = false;
+
+  /** @param pageSourceInput Supplier that starts the walk over the pages of the listing */
+  public ZoomStreamingSet(Supplier<Iterator<? extends Collection<T>>> pageSourceInput) {
+    pageSource = pageSourceInput;
+    ZoomOperationContext.closeOnEnd(this);
+  }
+
+  /** @return Iterator over the items read so far, then over the pages not yet read */
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private int position = 0;
+
+      @Override
+      public boolean hasNext() {
+        return hasItem(position);
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return getItem(position++);
+      }
+    };
+  }
+
+  /** Reads the rest of the listing, unless already read. */
+  @Override
+  public synchronized int size() {
+    while (readNextPage()) {
+      // the whole listing is needed
+    }
+    return items.size();
+  }
+
+  /** Reads the first page of the listing, unless already read. */
+  @Override
+  public boolean isEmpty() {
+    return !hasItem(0);
+  }
+
+  /** Closes the walk over the pages, if it was started and has not been read to its end. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    closePages();
+  }
+
+  private synchronized boolean hasItem(int position) {
+    while (position >= items.size()) {
+      if (!readNextPage()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private synchronized T getItem(int position) {
+    return items.get(position);
+  }
+
+  /**
+   * Reads the next page of the listing into the items.
+   *
+   * @return false if the listing has been read to its end
+   * @throws ConnectorException if the operation that created the set ended before the listing was
+   *     read to its end
+   */
+  private boolean readNextPage() {
+    if (exhausted) {
+      return false;
+    }
+    if (closed) {
+      throw new ConnectorException("Zoom listing read after the end of its operation");
+    }
+    if (pages == null) {
+      pages = pageSource.get();
+    }
+    if (!pages.hasNext()) {
+      exhausted = true;
+      closePages();
+      return false;
+    }
+    Collection<T> page = pages.next();
+    if (page != null) {
+      for (T item : page) {
+        if (distinctItems.add(item)) {
+          items.add(item);
+        }
+      }
+    }
+    return true;
+  }
+
+  private void closePages() {
+    if (pages instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) pages).close();
+      } catch (Exception e) {
+        throw new ConnectorException("Unable to close Zoom listing", e);
+      }
+    }
+  }
+}
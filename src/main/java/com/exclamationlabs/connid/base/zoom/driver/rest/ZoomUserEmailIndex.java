@@ -0,0 +1,125 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the case-folded email addresses of Zoom users to their user ids, as seen in user listings,
+ * user lookups and user creations. Creating a user whose email is already known reads that user by
+ * id, and resolves to the existing id without a POST /users request if the user still has this
+ * email. Entries expire after the configured cache time to live, and entries of users deleted or
+ * renamed by the connector are removed. An entry of a user deleted or renamed outside of the
+ * connector is removed by the create that finds it stale.
+ */
+public class ZoomUserEmailIndex {
+
+  private final ZoomDriver driver;
+  private final Map<String, Entry> idsByEmail = new ConcurrentHashMap<>();
+  private final Map<String, String> emailsById = new ConcurrentHashMap<>();
+
+  public ZoomUserEmailIndex(ZoomDriver zoomDriver) {
+    driver = zoomDriver;
+  }
+
+  /**
+   * @param email Email address of the user
+   * @return Id of the user with this email, or null if unknown or expired
+   */
+  public String getId(String email) {
+    if (email == null || email.trim().isEmpty()) {
+      return null;
+    }
+    String key = foldEmail(email);
+    Entry entry = idsByEmail.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.storedAt >= driver.getCacheTimeToLiveMillis()) {
+      synchronized (this) {
+        if (idsByEmail.remove(key, entry)) {
+          emailsById.remove(entry.userId, key);
+        }
+      }
+      return null;
+    }
+    return entry.userId;
+  }
+
+  public synchronized void put(String email, String userId) {
+    if (email == null || email.trim().isEmpty() || userId == null || userId.trim().isEmpty()) {
+      return;
+    }
+    String key = foldEmail(email);
+    String previousEmail = emailsById.put(userId, key);
+    if (previousEmail != null && !previousEmail.equals(key)) {
+      removeEntry(previousEmail, userId);
+    }
+    Entry previous = idsByEmail.put(key, new Entry(userId, System.currentTimeMillis()));
+    if (previous != null && !previous.userId.equals(userId)) {
+      emailsById.remove(previous.userId, key);
+    }
+  }
+
+  /** Records the email and id of each of the users, read from Zoom. */
+  public void putAll(Collection<ZoomUser> users) {
+    if (users == null) {
+      return;
+    }
+    for (ZoomUser user : users) {
+      if (user != null) {
+        put(user.getEmail(), user.getId());
+      }
+    }
+  }
+
+  /** Forgets the email of a user that was deleted or whose email was changed. */
+  public synchronized void remove(String userId) {
+    String email = userId == null ? null : emailsById.remove(userId);
+    if (email != null) {
+      removeEntry(email, userId);
+    }
+  }
+
+  /** Discards all known emails. */
+  public synchronized void invalidate() {
+    idsByEmail.clear();
+    emailsById.clear();
+  }
+
+  /** Removes the entry of an email if it still belongs to the user. */
+  private void removeEntry(String key, String userId) {
+    Entry entry = idsByEmail.get(key);
+    if (entry != null && entry.userId.equals(userId)) {
+      idsByEmail.remove(key, entry);
+    }
+  }
+
+  private static String foldEmail(String email) {
+    return email.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Entry {
+    private final String userId;
+    private final long storedAt;
+
+    private Entry(String userIdInput, long storedAtInput) {
+      userId = userIdInput;
+      storedAt = storedAtInput;
+    }
+  }
+}
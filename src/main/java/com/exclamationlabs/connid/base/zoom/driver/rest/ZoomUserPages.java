@@ -0,0 +1,80 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import com.exclamationlabs.connid.base.zoom.model.response.ListUsersResponse;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Walks the GET /users listing of each requested status in turn and returns the users of one page
+ * per call to {@link #next()}.
+ */
+public class ZoomUserPages implements Iterator<Collection<ZoomUser>> {
+
+  private final ZoomDriver driver;
+  private final Iterator<String> statuses;
+  private final int pageSize;
+  private final Consumer<Collection<ZoomUser>> pageCompletion;
+
+  private ZoomPageIterator<ListUsersResponse> currentStatusPages;
+
+  /**
+   * @param zoomDriver Driver used to execute the page requests
+   * @param statusList Zoom user statuses to list, in order
+   * @param pageSizeInput Number of users requested per page
+   * @param pageCompletionInput Applied to the users of each page before the page is returned
+   */
+  public ZoomUserPages(
+      ZoomDriver zoomDriver,
+      List<String> statusList,
+      int pageSizeInput,
+      Consumer<Collection<ZoomUser>> pageCompletionInput) {
+    driver = zoomDriver;
+    statuses = statusList.iterator();
+    pageSize = pageSizeInput;
+    pageCompletion = pageCompletionInput;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (currentStatusPages == null || !currentStatusPages.hasNext()) {
+      if (!statuses.hasNext()) {
+        return false;
+      }
+      currentStatusPages =
+          new ZoomPageIterator<>(
+                  driver, ListUsersResponse.class, "/users?status=" + statuses.next(), pageSize)
+              .withReadAhead(driver.getUserPagePrefetchDepth());
+    }
+    return true;
+  }
+
+  @Override
+  public Collection<ZoomUser> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    ListUsersResponse page = currentStatusPages.next();
+    if (page == null || page.getUsers() == null) {
+      return Collections.emptySet();
+    }
+    pageCompletion.accept(page.getUsers());
+    return page.getUsers();
+  }
+}
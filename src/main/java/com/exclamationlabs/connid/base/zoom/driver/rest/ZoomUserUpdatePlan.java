@@ -0,0 +1,254 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomCallingPlan;
+import com.exclamationlabs.connid.base.zoom.model.ZoomFeature;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneNumber;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneUserProfile;
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Changes to be made to a Zoom user, computed by comparing the user received from MidPoint with the
+ * current state of the user in Zoom. Only the values that differ are kept, so that an update sends
+ * requests to the endpoints actually affected and none at all when nothing changed.
+ */
+public class ZoomUserUpdatePlan {
+
+  private final ZoomUser profileChanges;
+  private final String email;
+  private final String status;
+  private final Set<String> groupsToAdd;
+  private final Set<String> groupsToRemove;
+  private final Set<Integer> callingPlansToAdd;
+  private final Set<Integer> callingPlansToRemove;
+  private final Set<String> phoneNumbersToAdd;
+  private final Set<String> phoneNumbersToRemove;
+
+  /**
+   * @param desired User built from the attributes of the update. Null fields are to remain
+   *     unchanged.
+   * @param current Current state of the user in Zoom
+   */
+  public ZoomUserUpdatePlan(ZoomUser desired, ZoomUser current) {
+    profileChanges = planProfileChanges(desired, current);
+    email =
+        StringUtils.isNotBlank(desired.getEmail())
+                && StringUtils.isNotBlank(current.getEmail())
+                && !StringUtils.equalsIgnoreCase(
+                    desired.getEmail().trim(), current.getEmail().trim())
+            ? desired.getEmail().trim()
+            : null;
+    status =
+        desired.getStatus() != null
+                && !StringUtils.equalsIgnoreCase(desired.getStatus(), current.getStatus())
+            ? desired.getStatus()
+            : null;
+
+    Set<String> currentGroupIds = current.getGroupIds();
+    groupsToAdd = without(desired.getGroupsToAdd(), currentGroupIds);
+    groupsToRemove = retained(desired.getGroupsToRemove(), currentGroupIds);
+
+    // Phone assignments are only compared when the current phone profile is known
+    ZoomPhoneUserProfile currentPhone = current.getPhoneProfile();
+    Set<Integer> currentPlans = currentPhone == null ? null : getPlanTypes(currentPhone);
+    Set<String> currentNumbers = currentPhone == null ? null : getNumbers(currentPhone);
+    callingPlansToAdd =
+        without(
+            desired.getOutboundAdd() == null ? null : desired.getOutboundAdd().getPlans(),
+            currentPlans);
+    callingPlansToRemove =
+        retained(
+            desired.getOutboundRemove() == null ? null : desired.getOutboundRemove().getPlans(),
+            currentPlans);
+    phoneNumbersToAdd =
+        without(
+            desired.getOutboundAdd() == null ? null : desired.getOutboundAdd().getPhones(),
+            currentNumbers);
+    phoneNumbersToRemove =
+        retained(
+            desired.getOutboundRemove() == null ? null : desired.getOutboundRemove().getPhones(),
+            currentNumbers);
+  }
+
+  /** @return User holding only the profile fields to send with PATCH /users/{id}, or null */
+  public ZoomUser getProfileChanges() {
+    return profileChanges;
+  }
+
+  /** @return New email address of the user, or null if unchanged */
+  public String getEmail() {
+    return email;
+  }
+
+  /** @return New status of the user, or null if unchanged */
+  public String getStatus() {
+    return status;
+  }
+
+  public Set<String> getGroupsToAdd() {
+    return groupsToAdd;
+  }
+
+  public Set<String> getGroupsToRemove() {
+    return groupsToRemove;
+  }
+
+  public Set<Integer> getCallingPlansToAdd() {
+    return callingPlansToAdd;
+  }
+
+  public Set<Integer> getCallingPlansToRemove() {
+    return callingPlansToRemove;
+  }
+
+  public Set<String> getPhoneNumbersToAdd() {
+    return phoneNumbersToAdd;
+  }
+
+  public Set<String> getPhoneNumbersToRemove() {
+    return phoneNumbersToRemove;
+  }
+
+  /** @return true if the Zoom Phone calling plans or phone numbers of the user change */
+  public boolean hasPhoneAssignmentChanges() {
+    return !callingPlansToAdd.isEmpty()
+        || !callingPlansToRemove.isEmpty()
+        || !phoneNumbersToAdd.isEmpty()
+        || !phoneNumbersToRemove.isEmpty();
+  }
+
+  private static ZoomUser planProfileChanges(ZoomUser desired, ZoomUser current) {
+    ZoomUser changes = new ZoomUser();
+    boolean changed = false;
+    if (differs(desired.getFirstName(), current.getFirstName())) {
+      changes.setFirstName(desired.getFirstName());
+      changed = true;
+    }
+    if (differs(desired.getLastName(), current.getLastName())) {
+      changes.setLastName(desired.getLastName());
+      changed = true;
+    }
+    if (differs(desired.getLanguage(), current.getLanguage())) {
+      changes.setLanguage(desired.getLanguage());
+      changed = true;
+    }
+    if (differs(desired.getTimezone(), current.getTimezone())) {
+      changes.setTimezone(desired.getTimezone());
+      changed = true;
+    }
+    if (differs(desired.getType(), current.getType())) {
+      changes.setType(desired.getType());
+      changed = true;
+    }
+    if (differs(desired.getPhoneNumber(), current.getPhoneNumber())) {
+      changes.setPhoneNumber(desired.getPhoneNumber());
+      changed = true;
+    }
+    if (differs(desired.getPhoneCountry(), current.getPhoneCountry())) {
+      changes.setPhoneCountry(desired.getPhoneCountry());
+      changed = true;
+    }
+    if (differs(desired.getPersonalMeetingId(), current.getPersonalMeetingId())) {
+      changes.setPersonalMeetingId(desired.getPersonalMeetingId());
+      changed = true;
+    }
+    // The current password is never returned by Zoom, a given password is always sent
+    if (desired.getPassword() != null) {
+      changes.setPassword(desired.getPassword());
+      changed = true;
+    }
+    ZoomFeature feature = planFeatureChanges(desired.getFeature(), current.getFeature());
+    if (feature != null) {
+      changes.setFeature(feature);
+      changed = true;
+    }
+    return changed ? changes : null;
+  }
+
+  private static ZoomFeature planFeatureChanges(ZoomFeature desired, ZoomFeature current) {
+    if (desired == null) {
+      return null;
+    }
+    ZoomFeature changes = new ZoomFeature();
+    boolean changed = false;
+    boolean currentZoomPhone = current != null && BooleanUtils.isTrue(current.getZoomPhone());
+    if (desired.getZoomPhone() != null && desired.getZoomPhone() != currentZoomPhone) {
+      changes.setZoomPhone(desired.getZoomPhone());
+      changed = true;
+    }
+    if (differs(desired.getZoomOneType(), current == null ? null : current.getZoomOneType())) {
+      changes.setZoomOneType(desired.getZoomOneType());
+      changed = true;
+    }
+    return changed ? changes : null;
+  }
+
+  private static boolean differs(Object desired, Object current) {
+    return desired != null && !Objects.equals(desired, current);
+  }
+
+  /** @return The requested values missing from the current ones, all of them if unknown */
+  private static <T> Set<T> without(Set<T> requested, Set<T> current) {
+    if (requested == null || requested.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<T> result = new HashSet<>(requested);
+    if (current != null) {
+      result.removeAll(current);
+    }
+    return result;
+  }
+
+  /** @return The requested values present in the current ones, all of them if unknown */
+  private static <T> Set<T> retained(Set<T> requested, Set<T> current) {
+    if (requested == null || requested.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<T> result = new HashSet<>(requested);
+    if (current != null) {
+      result.retainAll(current);
+    }
+    return result;
+  }
+
+  private static Set<Integer> getPlanTypes(ZoomPhoneUserProfile profile) {
+    Set<Integer> types = new HashSet<>();
+    if (profile.getCallingPlans() != null) {
+      for (ZoomCallingPlan plan : profile.getCallingPlans()) {
+        if (plan.getType() != null) {
+          types.add(plan.getType());
+        }
+      }
+    }
+    return types;
+  }
+
+  private static Set<String> getNumbers(ZoomPhoneUserProfile profile) {
+    Set<String> numbers = new HashSet<>();
+    if (profile.getPhoneNumbers() != null) {
+      for (ZoomPhoneNumber number : profile.getPhoneNumbers()) {
+        if (number.getNumber() != null) {
+          numbers.add(number.getNumber());
+        }
+      }
+    }
+    return numbers;
+  }
+}
@@ -21,11 +21,8 @@ import com.exclamationlabs.connid.base.connector.logging.Logger;
 import com.exclamationlabs.connid.base.connector.results.ResultsFilter;
 import com.exclamationlabs.connid.base.connector.results.ResultsPaginator;
 import com.exclamationlabs.connid.base.zoom.model.*;
-import com.exclamationlabs.connid.base.zoom.model.request.GroupMembersRequest;
 import com.exclamationlabs.connid.base.zoom.model.request.UserCreationRequest;
 import com.exclamationlabs.connid.base.zoom.model.request.UserStatusChangeRequest;
-import com.exclamationlabs.connid.base.zoom.model.response.GroupMembersResponse;
-import com.exclamationlabs.connid.base.zoom.model.response.ListSitesResponse;
 import com.exclamationlabs.connid.base.zoom.model.response.ListUsersResponse;
 import com.exclamationlabs.connid.base.zoom.model.response.ZoomUserCreateResponse;
 import java.util.*;
@@ -37,11 +34,41 @@ import org.identityconnectors.framework.common.exceptions.ConnectorException;
 public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser> {
   private static final Log LOG = Log.getLog(ZoomUsersInvocator.class);
 
+  /** Largest page_size accepted by GET /users. */
+  private static final int MAX_USER_PAGE_SIZE = 300;
+
+  private static final String CURSOR_SEPARATOR = ":";
+
   @Override
   public String create(ZoomDriver driver, ZoomUser zoomUser) throws ConnectorException {
 
-    ZoomUser user = null;
-    String id = null;
+    String id = driver.getUserEmailIndex().getId(zoomUser.getEmail());
+    if (id != null) {
+      // The known id is only used once Zoom confirms that it still belongs to this email, since
+      // the user may have been deleted or renamed outside of the connector
+      RestResponseData<ZoomUser> known =
+          driver.executeRequest(
+              new RestRequest.Builder<>(ZoomUser.class)
+                  .withGet()
+                  .withRequestUri("/users/" + id)
+                  .build());
+      ZoomUser knownUser = known.getResponseObject();
+      if (known.getResponseStatusCode() == 200
+          && knownUser != null
+          && StringUtils.equalsIgnoreCase(
+              StringUtils.trim(knownUser.getEmail()), StringUtils.trim(zoomUser.getEmail()))) {
+        Logger.info(
+            this, String.format("User %s already exists with id %s", zoomUser.getEmail(), id));
+        return id;
+      }
+      if (known.getResponseStatusCode() == 200 && knownUser != null) {
+        // Renamed, its entry moves to its current email
+        driver.getUserEmailIndex().put(knownUser.getEmail(), id);
+      } else {
+        driver.getUserEmailIndex().remove(id);
+      }
+      id = null;
+    }
     // Attempt to Create the User
     UserCreationRequest requestData =
         new UserCreationRequest(UserCreationType.CREATE.getZoomName(), zoomUser);
@@ -60,19 +87,26 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
         Logger.warn(this, "User with this email has unlinked account");
       }
       id = response.getId();
+      driver.getUserEmailIndex().put(zoomUser.getEmail(), id);
       // User might still be pending when action
-    } else if (data.getResponseStatusCode() == 409) {
-      user = getOneByName(driver, zoomUser.getEmail());
-      if (user != null) {
-        id = user.getId();
+      ZoomPhoneBatchProvisioner provisioner = driver.getPhoneBatchProvisioner();
+      if (StringUtils.isNotBlank(id)
+          && provisioner.isEnabled()
+          && isZoomPhoneEnabled(zoomUser)
+          && provisioner.hasPhoneData(zoomUser)) {
+        provisionPhoneData(driver, id, zoomUser);
       }
-      // Continue with Update if not pending
-    } else if (data.getResponseStatusCode() == 429) {
-      Logger.warn(this, String.format("Error %d:  %s", response.getCode(), response.getMessage()));
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-        ;
+    } else if (data.getResponseStatusCode() == 409) {
+      // Only the id of the existing user is needed, its phone data is not read
+      RestResponseData<ZoomUser> existing =
+          driver.executeRequest(
+              new RestRequest.Builder<>(ZoomUser.class)
+                  .withGet()
+                  .withRequestUri("/users/" + zoomUser.getEmail())
+                  .build());
+      if (existing.getResponseStatusCode() == 200 && existing.getResponseObject() != null) {
+        id = existing.getResponseObject().getId();
+        driver.getUserEmailIndex().put(zoomUser.getEmail(), id);
       }
     } else {
       Logger.warn(this, String.format("Error %d:  %s", response.getCode(), response.getMessage()));
@@ -82,6 +116,7 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     if (id == null) {
       throw new ConnectorException("Response from user creation was invalid");
     }
+    driver.getPhoneUserIndex().evict(id);
     return id;
   }
 
@@ -99,43 +134,59 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
   @Override
   public void update(ZoomDriver driver, String userId, ZoomUser user) throws ConnectorException {
 
+    // The current state of the user is read once, and kept in step with the changes made below
+    ZoomUser current = getOne(driver, userId, null);
+    if (current == null) {
+      throw new ConnectorException(String.format("Cannot update user %s, user not found", userId));
+    }
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(user, current);
     boolean deactivateOnly = StringUtils.equalsIgnoreCase(user.getStatus(), "inactive");
-    updateUserStatus(driver, user.getStatus(), userId);
+    updateUserStatus(driver, plan.getStatus(), userId, current);
 
     // If this Update request was an attempt to deactivate a user, do not invoke any other update
     // attempts
     if (!deactivateOnly) {
 
-      RestRequest req =
-          new RestRequest.Builder<>(Void.class)
-              .withPatch()
-              .withRequestBody(user)
-              .withRequestUri("/users/" + userId)
-              .build();
-      RestResponseData<Void> response = driver.executeRequest(req);
-
-      if (response.getResponseStatusCode() == 204) {
-        ZoomUser current = getOne(driver, userId, null);
-        // Update email if required
-        if (current != null
-            && current.getEmail() != null
-            && current.getEmail().trim().length() > 0
-            && user.getEmail() != null
-            && user.getEmail().trim().length() > 0
-            && !current.getEmail().trim().equalsIgnoreCase(user.getEmail().trim())) {
-          if (updateUserEmail(driver, userId, user.getEmail().trim())) {
-            current.setEmail(user.getEmail().trim());
-          }
+      // Only the profile fields that differ from the current user are sent
+      if (plan.getProfileChanges() != null) {
+        RestRequest req =
+            new RestRequest.Builder<>(Void.class)
+                .withPatch()
+                .withRequestBody(plan.getProfileChanges())
+                .withRequestUri("/users/" + userId)
+                .build();
+        RestResponseData<Void> response = driver.executeIdempotentRequest(req);
+        if (response.getResponseStatusCode() != 204) {
+          Logger.warn(
+              this,
+              String.format(
+                  "Status %d: Cannot update user %s", response.getResponseStatusCode(), userId));
+          return;
         }
-        // Update Groups
-        if (user.getGroupsToAdd() != null || user.getGroupsToRemove() != null) {
-          updateGroupAssignments(driver, userId, user.getGroupsToAdd(), user.getGroupsToRemove());
+      }
+
+      // Update email if required
+      if (plan.getEmail() != null) {
+        if (updateUserEmail(driver, userId, plan.getEmail())) {
+          current.setEmail(plan.getEmail());
+          driver.getUserEmailIndex().remove(userId);
         }
-        current = getOne(driver, userId, null);
-        if (current.getFeature() != null
-            && current.getFeature().getZoomPhone() != null
-            && current.getFeature().getZoomPhone()) {
-          // Update User Profile if needed
+      }
+      // Update Groups
+      if (!plan.getGroupsToAdd().isEmpty() || !plan.getGroupsToRemove().isEmpty()) {
+        updateGroupAssignments(
+            driver, userId, current, plan.getGroupsToAdd(), plan.getGroupsToRemove());
+      }
+      if (isZoomPhoneEnabled(user) && !isZoomPhoneEnabled(current)) {
+        // Zoom Phone was turned on by the PATCH above, read the new phone profile
+        driver.getPhoneUserIndex().evict(userId);
+        getPhoneInfo(driver, current);
+      }
+      if (isZoomPhoneEnabled(current)) {
+        // Update User Profile if needed
+        Integer profileStatus = null;
+        String extension = user.getPhoneProfile().getExtension();
+        if (extension != null) {
           String siteId = null;
           if (user.getSite() != null
               && user.getSite().getId() != null
@@ -158,32 +209,75 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
               siteId = site.getId();
             }
           }
-          String extension = user.getPhoneProfile().getExtension();
-          if (siteId != null && extension != null) {
-            updatePhoneUserProfile(driver, userId, current.getPhoneProfile(), extension, siteId);
+          if (siteId != null) {
+            profileStatus =
+                updatePhoneUserProfile(
+                    driver, userId, current.getPhoneProfile(), extension, siteId);
           }
-          // Remove Calling plans
-          unAssignPhoneCallingPlans(driver, userId, user.getOutboundRemove().getPlans());
-          // Update Calling Plans if needed
-          assignPhoneCallingPlans(driver, userId, user.getOutboundAdd().getPlans());
-          // Un-assign Phone Numbers
-          unAssignPhoneNumbers(driver, userId, user.getOutboundRemove().getPhones());
-          // Assign Phone Numbers
-          assignPhoneNumbers(
-              driver,
-              userId,
-              user.getOutboundAdd().getPhones(),
-              current.getPhoneProfile().getPhoneNumbers());
         }
-      } else {
-        Logger.warn(
-            this,
-            String.format(
-                "Status %d: Cannot update user %s", response.getResponseStatusCode(), userId));
+        if (profileStatus != null || plan.hasPhoneAssignmentChanges()) {
+          driver.getPhoneUserIndex().evict(userId);
+        }
+        // Remove Calling plans
+        unAssignPhoneCallingPlans(driver, userId, plan.getCallingPlansToRemove());
+        // Update Calling Plans if needed
+        assignPhoneCallingPlans(driver, userId, plan.getCallingPlansToAdd());
+        // Un-assign Phone Numbers
+        unAssignPhoneNumbers(driver, userId, plan.getPhoneNumbersToRemove());
+        // Assign Phone Numbers
+        assignPhoneNumbers(
+            driver,
+            userId,
+            plan.getPhoneNumbersToAdd(),
+            current.getPhoneProfile() == null ? null : current.getPhoneProfile().getPhoneNumbers());
       }
     }
   }
 
+  /**
+   * Provisions the Zoom Phone data of a created user through the batch provisioner. The user exists
+   * in Zoom at this point, so a failure does not fail the create: the phone data is then set with
+   * the per-user phone requests, and failing those, is left to the next update of the user.
+   */
+  private void provisionPhoneData(ZoomDriver driver, String userId, ZoomUser user) {
+    try {
+      driver.getPhoneBatchProvisioner().provision(user);
+      return;
+    } catch (ConnectorException e) {
+      Logger.warn(
+          this,
+          String.format(
+              "Zoom Phone batch provisioning of user id %s failed, using per-user requests",
+              userId),
+          e);
+    }
+    try {
+      ZoomPhoneUserProfile profile = user.getPhoneProfile();
+      String siteId = null;
+      if (user.getSite() != null && StringUtils.isNotBlank(user.getSite().getId())) {
+        siteId = user.getSite().getId();
+      } else if (user.getSite() != null && StringUtils.isNotBlank(user.getSite().getName())) {
+        ZoomPhoneSite site = getZoomPhoneSiteFromName(driver, user.getSite().getName());
+        siteId = site == null ? null : site.getId();
+      }
+      if (profile != null && StringUtils.isNotBlank(profile.getExtension()) && siteId != null) {
+        updatePhoneUserProfile(driver, userId, null, profile.getExtension(), siteId);
+      }
+      if (profile != null) {
+        assignPhoneCallingPlans(driver, userId, profile.getPlans());
+        assignPhoneNumbers(driver, userId, profile.getPhones(), null);
+      }
+    } catch (ConnectorException e) {
+      Logger.warn(
+          this,
+          String.format(
+              "Zoom Phone data of user id %s could not be provisioned, "
+                  + "it is set by the next update of the user",
+              userId),
+          e);
+    }
+  }
+
   @Override
   public void delete(ZoomDriver driver, String userId) throws ConnectorException {
     RestRequest req = null;
@@ -191,11 +285,11 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     if (driver.getConfiguration().getDeactivateOnDelete()) {
       if (user.getStatus().equalsIgnoreCase("pending")) {
         LOG.warn("Cannot DeActivate Pending user id=" + userId);
-        updateUserStatus(driver, "inactive", userId);
+        updateUserStatus(driver, "inactive", userId, user);
       } else if (user.getStatus().equalsIgnoreCase("inactive")) {
         LOG.warn("User Already inactive: id=" + userId);
       } else {
-        updateUserStatus(driver, "inactive", userId);
+        updateUserStatus(driver, "inactive", userId, user);
       }
 
     } else if (driver.getConfiguration().getDisassociateOnDelete()) {
@@ -205,11 +299,15 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
               .withDelete()
               .withRequestUri("/users/" + userId)
               .build();
-      driver.executeRequest(req);
+      driver.executeIdempotentRequest(req);
+      driver.getGroupMembershipIndex().userDeleted(userId);
+      driver.getUserEmailIndex().remove(userId);
     } else {
       String uri = "/users/" + userId + "?action=delete";
       req = new RestRequest.Builder<>(Void.class).withDelete().withRequestUri(uri).build();
-      driver.executeRequest(req);
+      driver.executeIdempotentRequest(req);
+      driver.getGroupMembershipIndex().userDeleted(userId);
+      driver.getUserEmailIndex().remove(userId);
     }
   }
 
@@ -220,8 +318,9 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
 
     String status = null;
     Set<ZoomUser> allUsers = null;
-    Set<ZoomUser> inactiveUsers = null;
-    Set<ZoomUser> activeUsers = null;
+    if (ZoomOperationContext.isPhoneDataRequested()) {
+      zoomDriver.getPhoneUserIndex().ensureLoaded();
+    }
     if (filter != null
         && filter.hasFilter()
         && filter.getFilterType() == FilterType.EqualsFilter
@@ -229,50 +328,37 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
         && filter.getAttribute().equalsIgnoreCase("status")) {
 
       status = filter.getValue();
-      allUsers = getUsersByStatus(zoomDriver, status, paginator);
-    } else if (paginator.hasPagination()) {
-
-      if (paginator.getTokenAsString() == null
-          || paginator.getTokenAsString().trim().length() == 0) {
-        paginator.setToken("active");
-      }
-      status = paginator.getTokenAsString();
-      if (status.trim().equalsIgnoreCase("active")) {
-        activeUsers = getUsersByStatus(zoomDriver, status, paginator);
-        if (activeUsers != null
-            && activeUsers.size() > 0
-            && paginator.getCurrentPageNumber() <= paginator.getNumberOfTotalPages()) {
-          allUsers = activeUsers;
-        }
-        if (paginator.getCurrentPageNumber() >= paginator.getNumberOfTotalPages()) {
-          paginator.setToken("inactive");
-          ResultsPaginator inactivePaginator = new ResultsPaginator(paginator.getPageSize(), 1);
-          inactiveUsers = getUsersByStatus(zoomDriver, "inactive", inactivePaginator);
-          if (inactiveUsers != null && inactiveUsers.size() > 0) {
-            if (allUsers != null) {
-              allUsers.addAll(inactiveUsers);
-            } else {
-              allUsers = inactiveUsers;
-            }
-            paginator.setNumberOfProcessedResults(
-                paginator.getNumberOfProcessedResults() + inactiveUsers.size());
-          }
-          paginator.setCurrentPageNumber(inactivePaginator.getCurrentPageNumber());
-          paginator.setNumberOfTotalPages(inactivePaginator.getNumberOfTotalPages());
-          if (paginator.getCurrentPageNumber() >= paginator.getNumberOfTotalPages()) {
-            paginator.setNoMoreResults(true);
-          }
-        }
-      } else {
-        allUsers = getUsersByStatus(zoomDriver, "inactive", paginator);
-        if (paginator.getCurrentPageNumber() >= paginator.getNumberOfTotalPages()) {
+      if (paginator.hasPagination()) {
+        allUsers = getUsersByStatus(zoomDriver, status, paginator);
+        if (getCursor(paginator, status) == null) {
           paginator.setNoMoreResults(true);
         }
+      } else {
+        allUsers = streamUsers(zoomDriver, Collections.singletonList(status));
+      }
+    } else if (paginator.hasPagination()) {
+      // The paginator token holds the status being listed and the next_page_token of that
+      // status, so that each page resumes where the previous one ended.
+      List<String> statuses = getListedStatuses(zoomDriver);
+      status = getTokenStatus(paginator);
+      if (status == null) {
+        status = statuses.get(0);
+      }
+      allUsers = getUsersByStatus(zoomDriver, status, paginator);
+      int nextStatus = statuses.indexOf(status.toLowerCase()) + 1;
+      while (getCursor(paginator, status) == null
+          && nextStatus > 0
+          && nextStatus < statuses.size()) {
+        // this status is exhausted, continue with the first page of the next status
+        status = statuses.get(nextStatus++);
+        paginator.setToken(status);
+        allUsers.addAll(getUsersByStatus(zoomDriver, status, paginator));
+      }
+      if (getCursor(paginator, status) == null) {
+        paginator.setNoMoreResults(true);
       }
     } else {
-      allUsers = getUsersByStatus(zoomDriver, "active", paginator);
-      ResultsPaginator inactivePaginator = new ResultsPaginator();
-      allUsers.addAll(getUsersByStatus(zoomDriver, "inactive", inactivePaginator));
+      allUsers = streamUsers(zoomDriver, getListedStatuses(zoomDriver));
       paginator.setNoMoreResults(true);
     }
 
@@ -300,6 +386,9 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     RestResponseData<ZoomUser> response = driver.executeRequest(req);
     if (response.getResponseStatusCode() == 200) {
       user = response.getResponseObject();
+      if (user != null) {
+        driver.getUserEmailIndex().put(user.getEmail(), user.getId());
+      }
       getPhoneInfo(driver, user);
     }
 
@@ -326,6 +415,9 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     user = response.getResponseObject();
     if (response.getResponseStatusCode() == 200) {
       user = response.getResponseObject();
+      if (user != null) {
+        driver.getUserEmailIndex().put(user.getEmail(), user.getId());
+      }
       getPhoneInfo(driver, user);
     }
     return user;
@@ -357,131 +449,196 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     return phoneUserProfile;
   }
 
+  /**
+   * Completes the user with its Zoom Phone profile and site. Nothing is requested when the current
+   * operation does not return any Zoom Phone attribute. Searches and gets join the profile from the
+   * phone user index when it covers the user, while write operations always read it from Zoom,
+   * since they compare it with the requested changes.
+   *
+   * @param driver
+   * @param user
+   */
   public void getPhoneInfo(ZoomDriver driver, ZoomUser user) {
+    if (!ZoomOperationContext.isPhoneDataRequested()) {
+      return;
+    }
     if (user != null
         && user.getId() != null
         && user.getId().trim().length() > 0
         && user.getStatus() != null
         && !user.getStatus().trim().equalsIgnoreCase("pending")) {
+      if (!ZoomOperationContext.isWriteOperation()
+          && driver.getPhoneUserIndex().covers(user.getId())) {
+        driver.getPhoneUserIndex().join(user);
+        return;
+      }
       ZoomFeature feature = new ZoomFeature();
       ZoomPhoneUserProfile phoneProfile = getPhoneUserProfile(driver, user.getId());
       if (phoneProfile != null) {
         feature.setZoomPhone(true);
         user.setPhoneProfile(phoneProfile);
         user.setFeature(feature);
-        ZoomPhoneSite site = getZoomPhoneSiteFromId(driver, phoneProfile.getSiteId());
-        user.setSite(site);
+        if (ZoomOperationContext.isPhoneSiteRequested()) {
+          ZoomPhoneSite site = getZoomPhoneSiteFromId(driver, phoneProfile.getSiteId());
+          user.setSite(site);
+        }
       }
     }
   }
 
+  /**
+   * Lists a single page of users having the given status, starting at the next_page_token held in
+   * the paginator token. The token is then updated with the cursor of the following page.
+   */
   private Set<ZoomUser> getUsersByStatus(
       ZoomDriver zoomDriver, String status, ResultsPaginator paginator) {
 
-    Set<ZoomUser> users = null;
-    boolean getAll = false;
-    String additionalQueryString = "?status=" + status;
-    if (paginator != null && paginator.hasPagination()) {
-      additionalQueryString = additionalQueryString + "&page_size=" + paginator.getPageSize();
-      if (paginator.getCurrentPageNumber() == null || paginator.getCurrentPageNumber() <= 0) {
-        paginator.setCurrentPageNumber(1);
+    Set<ZoomUser> users = new HashSet<>();
+    ZoomPageIterator<ListUsersResponse> pages =
+        new ZoomPageIterator<>(
+                zoomDriver,
+                ListUsersResponse.class,
+                "/users?status=" + status,
+                getUserPageSize(paginator),
+                getCursor(paginator, status))
+            .withReadAhead(zoomDriver.getUserPagePrefetchDepth());
+    readUserPage(zoomDriver, pages.next(), users, paginator);
+    setCursor(paginator, status, pages.getNextPageToken());
+
+    return users;
+  }
+
+  /**
+   * Lists all users having the given statuses without holding the whole listing in memory. Pages of
+   * 300 users are requested from Zoom as the returned set is iterated. When several statuses are
+   * requested, they are listed concurrently.
+   */
+  private Set<ZoomUser> streamUsers(ZoomDriver zoomDriver, List<String> statuses) {
+    if (statuses.size() == 1) {
+      return new ZoomStreamingSet<>(
+          () ->
+              new ZoomUserPages(
+                  zoomDriver,
+                  statuses,
+                  MAX_USER_PAGE_SIZE,
+                  users -> completeUserPage(zoomDriver, users)));
+    }
+    return new ZoomStreamingSet<>(
+        () ->
+            new ZoomConcurrentUserPages(
+                zoomDriver,
+                statuses,
+                MAX_USER_PAGE_SIZE,
+                zoomDriver.getUserPagePrefetchDepth(),
+                users -> completeUserPage(zoomDriver, users)));
+  }
+
+  /**
+   * Joins the phone data held by the phone user index into the users of a listing page. The index
+   * is reloaded if it expired during a long listing, so that only the users it does not cover,
+   * because Zoom Phone cannot be listed or their phone data was changed, have their phone profiles
+   * read concurrently by the driver's enrichment executor.
+   */
+  private void completeUserPage(ZoomDriver zoomDriver, Collection<ZoomUser> users) {
+    zoomDriver.getUserEmailIndex().putAll(users);
+    if (!ZoomOperationContext.isPhoneDataRequested()) {
+      return;
+    }
+    zoomDriver.getPhoneUserIndex().ensureLoaded();
+    zoomDriver.getPhoneUserIndex().joinAll(users);
+    List<ZoomUser> uncovered = new ArrayList<>();
+    for (ZoomUser user : users) {
+      if (user != null && !zoomDriver.getPhoneUserIndex().covers(user.getId())) {
+        uncovered.add(user);
       }
-      additionalQueryString =
-          additionalQueryString + "&page_number=" + paginator.getCurrentPageNumber();
-    } else {
-      getAll = true;
     }
-    RestRequest request =
-        new RestRequest.Builder<>(ListUsersResponse.class)
-            .withGet()
-            .withRequestUri("/users" + additionalQueryString)
-            .build();
-    RestResponseData<ListUsersResponse> data = zoomDriver.executeRequest(request);
-    ListUsersResponse response = data.getResponseObject();
+    if (!uncovered.isEmpty()) {
+      zoomDriver.getEnrichmentExecutor().forEach(uncovered, user -> getPhoneInfo(zoomDriver, user));
+    }
+  }
 
-    if (response != null) {
-      users = response.getUsers();
+  /** @return Statuses of the users returned by an unfiltered search, in listing order. */
+  private static List<String> getListedStatuses(ZoomDriver zoomDriver) {
+    List<String> statuses = new ArrayList<>(Arrays.asList("active", "inactive"));
+    if (zoomDriver.getConfiguration() != null
+        && BooleanUtils.isTrue(zoomDriver.getConfiguration().getIncludePendingUsers())) {
+      statuses.add("pending");
+    }
+    return statuses;
+  }
+
+  private void readUserPage(
+      ZoomDriver zoomDriver,
+      ListUsersResponse response,
+      Set<ZoomUser> users,
+      ResultsPaginator paginator) {
+    if (response == null) {
+      return;
+    }
+    if (paginator != null) {
       paginator.setTotalResults(response.getTotalRecords());
-      paginator.setNumberOfProcessedPages(response.getPageNumber());
       paginator.setNumberOfTotalPages(response.getPageCount());
       paginator.setPageSize(response.getPageSize());
-      if (response.getUsers() != null && response.getUsers().size() > 0) {
+      paginator.setNumberOfProcessedPages(
+          paginator.getNumberOfProcessedPages() == null
+              ? 1
+              : paginator.getNumberOfProcessedPages() + 1);
+    }
+    if (response.getUsers() != null && response.getUsers().size() > 0) {
+      completeUserPage(zoomDriver, response.getUsers());
+      users.addAll(response.getUsers());
+      if (paginator != null) {
         if (paginator.getNumberOfProcessedResults() == null) {
           paginator.setNumberOfProcessedResults(0);
         }
         paginator.setNumberOfProcessedResults(
             paginator.getNumberOfProcessedResults() + response.getUsers().size());
       }
-
-      while (getAll && response.getPageNumber() < response.getPageCount()) {
-        Integer pageNumber = response.getPageNumber() + 1;
-        additionalQueryString =
-            "?status="
-                + status
-                + "&page_size="
-                + response.getPageSize()
-                + "&page_number="
-                + pageNumber;
-        request =
-            new RestRequest.Builder<>(ListUsersResponse.class)
-                .withGet()
-                .withRequestUri("/users" + additionalQueryString)
-                .build();
-        data = zoomDriver.executeRequest(request);
-        response = data.getResponseObject();
-        if (response != null) {
-          paginator.setTotalResults(response.getTotalRecords());
-          paginator.setNumberOfProcessedPages(response.getPageNumber());
-          paginator.setNumberOfTotalPages(response.getPageCount());
-          paginator.setPageSize(response.getPageSize());
-          if (response.getUsers() != null && response.getUsers().size() > 0) {
-            paginator.setNumberOfProcessedResults(
-                paginator.getNumberOfProcessedResults() + response.getUsers().size());
-            users.addAll(response.getUsers());
-          }
-        }
-      }
     }
-
-    return users;
   }
 
-  private Set<ZoomPhoneSite> getPhoneSiteList(ZoomDriver driver) {
-    String uri = "/phone/sites";
-    RestRequest req =
-        new RestRequest.Builder<>(ListSitesResponse.class).withGet().withRequestUri(uri).build();
+  private static int getUserPageSize(ResultsPaginator paginator) {
+    if (paginator.getPageSize() == null || paginator.getPageSize() <= 0) {
+      return MAX_USER_PAGE_SIZE;
+    }
+    return Math.min(paginator.getPageSize(), MAX_USER_PAGE_SIZE);
+  }
 
-    RestResponseData<ListSitesResponse> response = driver.executeRequest(req);
+  /** @return The status part of a paginator token of the form status[:next_page_token] */
+  private static String getTokenStatus(ResultsPaginator paginator) {
+    String token = paginator.getTokenAsString();
+    if (token == null || token.trim().length() == 0) {
+      return null;
+    }
+    return StringUtils.substringBefore(token.trim(), CURSOR_SEPARATOR);
+  }
 
-    Set<ZoomPhoneSite> sites = response.getResponseObject().getSites();
+  /**
+   * @return The next_page_token held by the paginator for the given status, or null when the
+   *     paginator is positioned at the start or end of that status.
+   */
+  private static String getCursor(ResultsPaginator paginator, String status) {
+    String token = paginator.getTokenAsString();
+    if (token == null || !StringUtils.equalsIgnoreCase(getTokenStatus(paginator), status)) {
+      return null;
+    }
+    return StringUtils.trimToNull(StringUtils.substringAfter(token.trim(), CURSOR_SEPARATOR));
+  }
 
-    return sites;
+  private static void setCursor(ResultsPaginator paginator, String status, String cursor) {
+    if (StringUtils.isBlank(cursor)) {
+      paginator.setToken(status);
+    } else {
+      paginator.setToken(status + CURSOR_SEPARATOR + cursor);
+    }
   }
 
   private ZoomPhoneSite getZoomPhoneSiteFromId(ZoomDriver driver, String siteId) {
-    ZoomPhoneSite site = null;
-    Set<ZoomPhoneSite> aSet = getPhoneSiteList(driver);
-    List<ZoomPhoneSite> aList = new ArrayList<>(aSet);
-    for (ZoomPhoneSite item : aList) {
-      if (item.getId() != null && item.getId().trim().equalsIgnoreCase(siteId.trim())) {
-        site = item;
-        break;
-      }
-    }
-    return site;
+    return driver.getPhoneSiteCache().getById(siteId);
   }
 
   private ZoomPhoneSite getZoomPhoneSiteFromName(ZoomDriver driver, String siteName) {
-    ZoomPhoneSite site = null;
-    Set<ZoomPhoneSite> aSet = getPhoneSiteList(driver);
-    List<ZoomPhoneSite> aList = new ArrayList<>(aSet);
-    for (ZoomPhoneSite item : aList) {
-      if (item.getName() != null && item.getName().trim().equalsIgnoreCase(siteName.trim())) {
-        site = item;
-        break;
-      }
-    }
-    return site;
+    return driver.getPhoneSiteCache().getByName(siteName);
   }
 
   private boolean updateUserEmail(ZoomDriver driver, String userId, String userEmail) {
@@ -493,7 +650,7 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
             .withRequestUri("/users/" + userId + "/email")
             .build();
 
-    RestResponseData<Void> response = driver.executeRequest(req);
+    RestResponseData<Void> response = driver.executeIdempotentRequest(req);
     if (response.getResponseStatusCode() == 200 || response.getResponseStatusCode() == 204) {
       result = true;
     } else {
@@ -506,12 +663,21 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     return result;
   }
 
-  private void updateUserStatus(ZoomDriver zoomDriver, String desiredStatus, String userId) {
+  private static boolean isZoomPhoneEnabled(ZoomUser user) {
+    return user.getFeature() != null && BooleanUtils.isTrue(user.getFeature().getZoomPhone());
+  }
+
+  /**
+   * Changes the status of the user unless it already has the desired status.
+   *
+   * @param currentUser Current state of the user, whose status is updated after the change
+   */
+  private void updateUserStatus(
+      ZoomDriver zoomDriver, String desiredStatus, String userId, ZoomUser currentUser) {
     if (desiredStatus == null) {
       return;
     }
 
-    ZoomUser currentUser = getOne(zoomDriver, userId, null);
     if (StringUtils.equalsIgnoreCase(currentUser.getStatus(), desiredStatus)) {
       return;
     }
@@ -523,19 +689,20 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     Logger.info(
         this,
         String.format("Changing status of user id %s, request verb is %s", userId, statusVerb));
-    zoomDriver.executeRequest(
+    zoomDriver.executeIdempotentRequest(
         new RestRequest.Builder<>(Void.class)
             .withPut()
             .withRequestBody(statusChangeRequest)
             .withRequestUri("/users/" + userId + "/status")
             .build());
+    currentUser.setStatus(desiredStatus);
 
     if (StringUtils.equalsIgnoreCase(desiredStatus, "inactive")
         && BooleanUtils.isTrue(zoomDriver.getConfiguration().getImmediateLogoutOnDeactivate())) {
       Logger.info(
           this, String.format("Deactivation completed.  Deleting SSOToken for user id %s", userId));
 
-      zoomDriver.executeRequest(
+      zoomDriver.executeIdempotentRequest(
           new RestRequest.Builder<>(Void.class)
               .withDelete()
               .withRequestUri("/users/" + userId + "/token")
@@ -543,20 +710,28 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     }
   }
 
+  /**
+   * Adds and removes the group memberships of the user that differ from its current groups.
+   *
+   * @param current Current state of the user, whose group ids are updated after the changes
+   */
   private void updateGroupAssignments(
-      ZoomDriver driver, String userId, Set<String> toAdd, Set<String> toRemove) {
+      ZoomDriver driver, String userId, ZoomUser current, Set<String> toAdd, Set<String> toRemove) {
 
-    ZoomUser temp = getOne(driver, userId, Collections.emptyMap());
-    Set<String> currentGroupIds = temp.getGroupIds();
+    Set<String> currentGroupIds =
+        current.getGroupIds() == null ? new HashSet<>() : new HashSet<>(current.getGroupIds());
+    Set<String> updatedGroupIds = new HashSet<>(currentGroupIds);
 
     if (toRemove != null) {
       for (String groupId : currentGroupIds) {
         if (toRemove.contains(groupId)) {
-          driver.executeRequest(
+          driver.executeIdempotentRequest(
               new RestRequest.Builder<>(Void.class)
                   .withDelete()
                   .withRequestUri("/groups/" + groupId + "/members/" + userId)
                   .build());
+          updatedGroupIds.remove(groupId);
+          driver.getGroupMembershipIndex().memberRemoved(groupId, userId);
           Logger.info(
               this,
               String.format("Successfully removed group id %s from user id %s", groupId, userId));
@@ -565,37 +740,14 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     }
 
     if (toAdd != null) {
-      for (String groupId : toAdd) {
-        if (!currentGroupIds.contains(groupId)) {
-          addGroupToUser(driver, groupId, userId);
-          Logger.info(
-              this, String.format("Successfully added group id %s to user id %s", groupId, userId));
-        }
+      Set<String> addedGroupIds = new LinkedHashSet<>(toAdd);
+      addedGroupIds.removeAll(currentGroupIds);
+      if (!addedGroupIds.isEmpty()) {
+        driver.getGroupMemberBatcher().addMember(userId, addedGroupIds);
+        updatedGroupIds.addAll(addedGroupIds);
       }
     }
-  }
-
-  private void addGroupToUser(ZoomDriver driver, String groupId, String userId) {
-    List<GroupMember> memberList = new ArrayList<>();
-    memberList.add(new GroupMember(userId));
-    GroupMembersRequest membersRequest = new GroupMembersRequest(memberList);
-
-    GroupMembersResponse response =
-        driver
-            .executeRequest(
-                new RestRequest.Builder<>(GroupMembersResponse.class)
-                    .withPost()
-                    .withRequestUri("/groups/" + groupId + "/members")
-                    .withRequestBody(membersRequest)
-                    .build())
-            .getResponseObject();
-
-    if (response == null || response.getAddedAt() == null) {
-      throw new ConnectorException(
-          String.format(
-              "Unexpected response received while adding user id %s to group id %s",
-              userId, groupId));
-    }
+    current.setGroupIds(updatedGroupIds);
   }
 
   private Integer updatePhoneUserProfile(
@@ -608,10 +760,10 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
     String requestBody = null;
     String ext = null;
     String sit = null;
-    if (current == null || !current.getExtension().equalsIgnoreCase(extension)) {
+    if (current == null || !StringUtils.equalsIgnoreCase(current.getExtension(), extension)) {
       ext = String.format("\"extension_number\":\"%s\"", extension);
     }
-    if (current == null || !current.getSiteId().equalsIgnoreCase(siteId)) {
+    if (current == null || !StringUtils.equalsIgnoreCase(current.getSiteId(), siteId)) {
       sit = String.format("\"site_id\":\"%s\"", siteId);
     }
     if (ext != null && sit != null) {
@@ -628,7 +780,7 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
               .withRequestBody(requestBody)
               .withRequestUri("/phone/users/" + userId)
               .build();
-      RestResponseData<Void> response = driver.executeRequest(req);
+      RestResponseData<Void> response = driver.executeIdempotentRequest(req);
       if (response != null) {
         statusCode = response.getResponseStatusCode();
       }
@@ -718,7 +870,7 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
                 .withDelete()
                 .withRequestUri("/phone/users/" + userId + "/calling_plans/" + plan)
                 .build();
-        RestResponseData<Void> response = driver.executeRequest(req);
+        RestResponseData<Void> response = driver.executeIdempotentRequest(req);
         if (response != null) {
           statusCode = response.getResponseStatusCode();
         }
@@ -736,7 +888,7 @@ public class ZoomUsersInvocator implements DriverInvocator<ZoomDriver, ZoomUser>
                 .withDelete()
                 .withRequestUri("/phone/users/" + userId + "/phone_numbers/" + number)
                 .build();
-        RestResponseData<Void> response = driver.executeRequest(req);
+        RestResponseData<Void> response = driver.executeIdempotentRequest(req);
         if (response != null) {
           statusCode = response.getResponseStatusCode();
         }
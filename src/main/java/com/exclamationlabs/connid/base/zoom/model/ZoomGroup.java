@@ -18,6 +18,7 @@ package com.exclamationlabs.connid.base.zoom.model;
 
 import com.exclamationlabs.connid.base.connector.model.IdentityModel;
 import com.google.gson.annotations.SerializedName;
+import java.util.Set;
 
 public class ZoomGroup implements IdentityModel {
 
@@ -27,6 +28,8 @@ public class ZoomGroup implements IdentityModel {
   @SerializedName("total_members")
   private Integer totalMembers;
 
+  private transient Set<String> memberIds;
+
   public String getId() {
     return id;
   }
@@ -51,6 +54,14 @@ public class ZoomGroup implements IdentityModel {
     this.totalMembers = totalMembers;
   }
 
+  public Set<String> getMemberIds() {
+    return memberIds;
+  }
+
+  public void setMemberIds(Set<String> memberIds) {
+    this.memberIds = memberIds;
+  }
+
   @Override
   public String getIdentityIdValue() {
     return getId();
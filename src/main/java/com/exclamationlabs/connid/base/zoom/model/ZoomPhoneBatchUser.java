@@ -12,7 +12,10 @@ public class ZoomPhoneBatchUser {
   @SerializedName("extension_number")
   private String extensionNumber;
 
+  @SerializedName("first_name")
   private String firstName;
+
+  @SerializedName("last_name")
   private String lastName;
 
   @SerializedName("outbound_caller_id")
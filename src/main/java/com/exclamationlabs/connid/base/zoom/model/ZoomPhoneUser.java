@@ -0,0 +1,59 @@
+/*
+    Copyright 2020 Exclamation Labs
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package com.exclamationlabs.connid.base.zoom.model;
+
+/**
+ * Entry of the GET /phone/users listing. Unlike GET /phone/users/{id}, the listing returns the site
+ * of the user as an object instead of a site_id.
+ */
+public class ZoomPhoneUser extends ZoomPhoneUserProfile {
+  private String id;
+  private String email;
+  private ZoomPhoneSite site;
+
+  public String getId() {
+    return id;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public ZoomPhoneSite getSite() {
+    return site;
+  }
+
+  @Override
+  public String getSiteId() {
+    if (super.getSiteId() == null && site != null) {
+      return site.getId();
+    }
+    return super.getSiteId();
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public void setEmail(String email) {
+    this.email = email;
+  }
+
+  public void setSite(ZoomPhoneSite site) {
+    this.site = site;
+  }
+}
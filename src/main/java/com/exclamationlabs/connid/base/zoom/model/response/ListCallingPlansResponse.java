@@ -0,0 +1,34 @@
+/*
+    Copyright 2020 Exclamation Labs
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package com.exclamationlabs.connid.base.zoom.model.response;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomCallingPlan;
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class ListCallingPlansResponse {
+  @SerializedName("calling_plans")
+  private List<ZoomCallingPlan> callingPlans;
+
+  public List<ZoomCallingPlan> getCallingPlans() {
+    return callingPlans;
+  }
+
+  public void setCallingPlans(List<ZoomCallingPlan> callingPlans) {
+    this.callingPlans = callingPlans;
+  }
+}
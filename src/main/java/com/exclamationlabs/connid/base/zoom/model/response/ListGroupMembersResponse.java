@@ -0,0 +1,67 @@
+/*
+    Copyright 2020 Exclamation Labs
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+        http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+
+package com.exclamationlabs.connid.base.zoom.model.response;
+
+import com.exclamationlabs.connid.base.zoom.model.GroupMember;
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class ListGroupMembersResponse implements TokenPagedResponse {
+  @SerializedName("next_page_token")
+  private String nextPageToken;
+
+  @SerializedName("page_size")
+  private Integer pageSize;
+
+  @SerializedName("total_records")
+  private Integer totalRecords;
+
+  private List<GroupMember> members;
+
+  @Override
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+
+  public Integer getPageSize() {
+    return pageSize;
+  }
+
+  public Integer getTotalRecords() {
+    return totalRecords;
+  }
+
+  public List<GroupMember> getMembers() {
+    return members;
+  }
+
+  public void setNextPageToken(String nextPageToken) {
+    this.nextPageToken = nextPageToken;
+  }
+
+  public void setPageSize(Integer pageSize) {
+    this.pageSize = pageSize;
+  }
+
+  public void setTotalRecords(Integer totalRecords) {
+    this.totalRecords = totalRecords;
+  }
+
+  public void setMembers(List<GroupMember> members) {
+    this.members = members;
+  }
+}
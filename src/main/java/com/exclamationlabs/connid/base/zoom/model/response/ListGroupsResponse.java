@@ -20,17 +20,48 @@ import com.exclamationlabs.connid.base.zoom.model.ZoomGroup;
 import com.google.gson.annotations.SerializedName;
 import java.util.Set;
 
-public class ListGroupsResponse {
+public class ListGroupsResponse implements TokenPagedResponse {
+  @SerializedName("next_page_token")
+  private String nextPageToken;
+
+  @SerializedName("page_size")
+  private Integer pageSize;
+
   private Set<ZoomGroup> groups;
 
   @SerializedName("total_records")
   private Integer totalRecords;
 
+  @Override
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+
+  public Integer getPageSize() {
+    return pageSize;
+  }
+
   public Set<ZoomGroup> getGroups() {
     return groups;
   }
 
+  public Integer getTotalRecords() {
+    return totalRecords;
+  }
+
+  public void setNextPageToken(String nextPageToken) {
+    this.nextPageToken = nextPageToken;
+  }
+
+  public void setPageSize(Integer pageSize) {
+    this.pageSize = pageSize;
+  }
+
   public void setGroups(Set<ZoomGroup> groups) {
     this.groups = groups;
   }
+
+  public void setTotalRecords(Integer totalRecords) {
+    this.totalRecords = totalRecords;
+  }
 }
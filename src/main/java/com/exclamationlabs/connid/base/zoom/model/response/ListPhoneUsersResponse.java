@@ -0,0 +1,63 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.model.response;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneUser;
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class ListPhoneUsersResponse implements TokenPagedResponse {
+  @SerializedName("next_page_token")
+  private String nextPageToken;
+
+  @SerializedName("page_size")
+  private Integer pageSize;
+
+  @SerializedName("total_records")
+  private Integer totalRecords;
+
+  private List<ZoomPhoneUser> users;
+
+  @Override
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+
+  public Integer getPageSize() {
+    return pageSize;
+  }
+
+  public Integer getTotalRecords() {
+    return totalRecords;
+  }
+
+  public List<ZoomPhoneUser> getUsers() {
+    return users;
+  }
+
+  public void setNextPageToken(String nextPageToken) {
+    this.nextPageToken = nextPageToken;
+  }
+
+  public void setPageSize(Integer pageSize) {
+    this.pageSize = pageSize;
+  }
+
+  public void setTotalRecords(Integer totalRecords) {
+    this.totalRecords = totalRecords;
+  }
+
+  public void setUsers(List<ZoomPhoneUser> users) {
+    this.users = users;
+  }
+}
@@ -20,7 +20,7 @@ import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneSite;
 import com.google.gson.annotations.SerializedName;
 import java.util.Set;
 
-public class ListSitesResponse {
+public class ListSitesResponse implements TokenPagedResponse {
   @SerializedName("next_page_token")
   private String nextPageToken;
 
@@ -32,6 +32,7 @@ public class ListSitesResponse {
   @SerializedName("total_records")
   private Integer totalRecords;
 
+  @Override
   public String getNextPageToken() {
     return nextPageToken;
   }
@@ -20,7 +20,7 @@ import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
 import com.google.gson.annotations.SerializedName;
 import java.util.Set;
 
-public class ListUsersResponse {
+public class ListUsersResponse implements TokenPagedResponse {
   @SerializedName("next_page_token")
   private String nextPageToken;
 
@@ -38,6 +38,7 @@ public class ListUsersResponse {
 
   private Set<ZoomUser> users;
 
+  @Override
   public String getNextPageToken() {
     return nextPageToken;
   }
@@ -0,0 +1,410 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom;
+
+import static com.exclamationlabs.connid.base.zoom.attribute.ZoomGroupAttribute.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.connector.results.ResultsPaginator;
+import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
+import com.exclamationlabs.connid.base.zoom.driver.rest.ZoomApiMetricsMXBean;
+import com.exclamationlabs.connid.base.zoom.driver.rest.ZoomDriver;
+import com.exclamationlabs.connid.base.zoom.driver.rest.ZoomGroupsInvocator;
+import com.exclamationlabs.connid.base.zoom.driver.rest.ZoomUsersInvocator;
+import com.exclamationlabs.connid.base.zoom.model.ZoomGroup;
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import com.exclamationlabs.connid.base.zoom.simulator.ZoomApiSimulator;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.ObjectName;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.framework.common.objects.*;
+import org.identityconnectors.framework.spi.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the connector against the in-process {@link ZoomApiSimulator}. The size of the simulated
+ * tenant is set with the zoom.simulator.users system property, for instance
+ * -Dzoom.simulator.users=100000 for a load test.
+ */
+public class ZoomConnectorSimulatorTest {
+
+  private static final int USER_COUNT = Integer.getInteger("zoom.simulator.users", 1000);
+  private static final int GROUP_COUNT = Integer.getInteger("zoom.simulator.groups", 20);
+  private static final int SITE_COUNT = 5;
+
+  private ZoomApiSimulator simulator;
+  private ZoomConnector connector;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    start(USER_COUNT, GROUP_COUNT, SITE_COUNT, null);
+  }
+
+  @AfterEach
+  public void teardown() {
+    connector.dispose();
+    simulator.close();
+  }
+
+  private void start(int userCount, int groupCount, int siteCount, Integer callBudget)
+      throws IOException {
+    simulator = new ZoomApiSimulator(userCount, groupCount, siteCount, 20200506L).start(16);
+    connector =
+        new ZoomConnector() {
+          @Override
+          public void init(Configuration configuration) {
+            setAuthenticator(null);
+            super.init(configuration);
+          }
+        };
+    ZoomConfiguration configuration = new ZoomConfiguration();
+    configuration.setServiceUrl(simulator.getServiceUrl());
+    configuration.setTokenUrl("test");
+    configuration.setClientId("test1");
+    configuration.setAccountId("1234");
+    configuration.setClientSecret(new GuardedString("test2".toCharArray()));
+    configuration.setOperationCallBudget(callBudget);
+    connector.init(configuration);
+  }
+
+  @Test
+  public void test100ListAllUsers() {
+    List<ConnectorObject> users = search("ZoomUser", new OperationOptionsBuilder().build());
+    assertEquals(
+        simulator.getUserCount("active") + simulator.getUserCount("inactive"), users.size());
+    // Phone data is joined from the phone user listing rather than read user by user
+    assertTrue(simulator.getRequestCount("GET /phone/users") > 0);
+    assertEquals(0, simulator.getRequestCount("GET /phone/users/{id}"));
+  }
+
+  @Test
+  public void test110ListUsersWithoutPhoneData() {
+    List<ConnectorObject> users =
+        search(
+            "ZoomUser",
+            new OperationOptionsBuilder().setAttributesToGet("FIRST_NAME", "LAST_NAME").build());
+    assertEquals(
+        simulator.getUserCount("active") + simulator.getUserCount("inactive"), users.size());
+    assertEquals(0, simulator.getRequestCount("GET /phone/users"));
+    assertEquals(0, simulator.getRequestCount("GET /phone/sites"));
+  }
+
+  @Test
+  public void test120ListUsersWhileThrottled() {
+    simulator.withThrottling(3, 1);
+    List<ConnectorObject> users =
+        search(
+            "ZoomUser",
+            new OperationOptionsBuilder().setAttributesToGet("FIRST_NAME", "LAST_NAME").build());
+    assertEquals(
+        simulator.getUserCount("active") + simulator.getUserCount("inactive"), users.size());
+    assertTrue(simulator.getThrottledCount() > 0);
+  }
+
+  @Test
+  public void test130ListUsersInOnePass() {
+    List<ConnectorObject> users =
+        search(
+            "ZoomUser",
+            new OperationOptionsBuilder().setAttributesToGet("FIRST_NAME", "LAST_NAME").build());
+    int active = simulator.getUserCount("active");
+    int inactive = simulator.getUserCount("inactive");
+    assertEquals(active + inactive, users.size());
+    // Every page of the listing is requested once, the streamed result is not walked again
+    assertEquals(
+        getPageCount(active) + getPageCount(inactive), simulator.getRequestCount("GET /users"));
+  }
+
+  @Test
+  public void test135ListUsersPageByPage() {
+    ZoomDriver driver = (ZoomDriver) connector.getDriver();
+    ResultsPaginator paginator = new ResultsPaginator(100, 1);
+    Set<String> userIds = new HashSet<>();
+    int calls = 0;
+    do {
+      // Each call resumes at the status and next_page_token held by the paginator token
+      for (ZoomUser user : new ZoomUsersInvocator().getAll(driver, null, paginator, null)) {
+        assertTrue(userIds.add(user.getId()), user.getId());
+      }
+      calls++;
+    } while (paginator.getTokenAsString().contains(":") && calls < 100);
+    int active = simulator.getUserCount("active");
+    int inactive = simulator.getUserCount("inactive");
+    assertEquals(active + inactive, userIds.size());
+    assertEquals(
+        (active + 99) / 100 + (inactive + 99) / 100, simulator.getRequestCount("GET /users"));
+  }
+
+  @Test
+  public void test140PublishRequestCountsByEndpoint() throws JMException {
+    search("ZoomUser", new OperationOptionsBuilder().build());
+    ZoomApiMetricsMXBean metrics = getMetrics();
+    Map<String, Long> counts = metrics.getRequestCountByEndpoint();
+    assertTrue(counts.containsKey("GET /users"));
+    // Each endpoint template is counted as received by Zoom
+    for (Map.Entry<String, Long> count : counts.entrySet()) {
+      assertEquals(
+          simulator.getRequestCount(count.getKey()), count.getValue().intValue(), count.getKey());
+    }
+    assertEquals(simulator.getRequestCount(), metrics.getRequestCount());
+  }
+
+  @Test
+  public void test150BlankQueryListingIsNotBudgeted() throws IOException, JMException {
+    teardown();
+    start(USER_COUNT, GROUP_COUNT, SITE_COUNT, 1);
+    List<ConnectorObject> users = new ArrayList<>();
+    connector.executeQuery(
+        new ObjectClass("ZoomUser"), "", users::add, new OperationOptionsBuilder().build());
+    assertFalse(users.isEmpty());
+    assertTrue(simulator.getRequestCount() > 1);
+    // A blank query lists all users, which is a search rather than a get of one user
+    assertEquals(0, getMetrics().getOverBudgetOperationCount());
+
+    Set<AttributeDelta> deltas = new HashSet<>();
+    deltas.add(
+        new AttributeDeltaBuilder().setName("FIRST_NAME").addValueToReplace("Renamed").build());
+    connector.updateDelta(
+        new ObjectClass("ZoomUser"),
+        users.get(0).getUid(),
+        deltas,
+        new OperationOptionsBuilder().build());
+    assertEquals(1, getMetrics().getOverBudgetOperationCount());
+  }
+
+  @Test
+  public void test160UpdateReadsPhoneProfileFromZoom() {
+    // The listing loads the phone user index
+    ConnectorObject phoneUser = null;
+    for (ConnectorObject user : search("ZoomUser", new OperationOptionsBuilder().build())) {
+      if (phoneUser == null && user.getAttributeByName("EXTENSION_NUMBER") != null) {
+        phoneUser = user;
+      }
+    }
+    assertNotNull(phoneUser);
+    assertEquals(0, simulator.getRequestCount("GET /phone/users/{id}"));
+
+    Set<AttributeDelta> deltas = new HashSet<>();
+    deltas.add(
+        new AttributeDeltaBuilder().setName("FIRST_NAME").addValueToReplace("Renamed").build());
+    connector.updateDelta(
+        new ObjectClass("ZoomUser"),
+        phoneUser.getUid(),
+        deltas,
+        new OperationOptionsBuilder().build());
+    // The update compares its changes with the phone profile read from Zoom, not the index
+    assertEquals(1, simulator.getRequestCount("GET /phone/users/{id}"));
+  }
+
+  @Test
+  public void test165UpdateReadsUserOnce() {
+    String groupId = simulator.getGroupIds().iterator().next();
+    String userId = null;
+    for (ConnectorObject user :
+        search("ZoomUser", new OperationOptionsBuilder().setAttributesToGet("EMAIL").build())) {
+      if (userId == null
+          && !simulator.getMemberIds(groupId).contains(user.getUid().getUidValue())) {
+        userId = user.getUid().getUidValue();
+      }
+    }
+    assertNotNull(userId);
+
+    Set<AttributeDelta> deltas = new HashSet<>();
+    deltas.add(
+        new AttributeDeltaBuilder().setName("FIRST_NAME").addValueToReplace("Renamed").build());
+    deltas.add(new AttributeDeltaBuilder().setName("GROUP_IDS").addValueToAdd(groupId).build());
+    connector.updateDelta(
+        new ObjectClass("ZoomUser"),
+        new Uid(userId),
+        deltas,
+        new OperationOptionsBuilder().build());
+    assertTrue(simulator.getMemberIds(groupId).contains(userId));
+    // The profile and group steps share the user read at the start of the update
+    assertEquals(1, simulator.getRequestCount("GET /users/{id}"));
+  }
+
+  @Test
+  public void test170CreateChecksKnownIdOfEmail() {
+    // The listing records the email of each user
+    List<ConnectorObject> users =
+        search("ZoomUser", new OperationOptionsBuilder().setAttributesToGet("EMAIL").build());
+    String existingId = users.get(0).getUid().getUidValue();
+    String deletedId = users.get(1).getUid().getUidValue();
+
+    Uid existing =
+        createUser(users.get(0).getAttributeByName("EMAIL").getValue().get(0).toString());
+    assertEquals(existingId, existing.getUidValue());
+    assertEquals(0, simulator.getRequestCount("POST /users"));
+
+    // A user deleted outside of the connector is created again
+    simulator.deleteUser(deletedId);
+    Uid created = createUser(users.get(1).getAttributeByName("EMAIL").getValue().get(0).toString());
+    assertNotEquals(deletedId, created.getUidValue());
+    assertEquals(1, simulator.getRequestCount("POST /users"));
+    assertEquals(2, simulator.getRequestCount("GET /users/{id}"));
+  }
+
+  @Test
+  public void test180ResolveSitesListedOnLaterPages() throws IOException {
+    teardown();
+    // The 650 sites are listed in three pages, sites from 300 on having codes from 400 on
+    start(USER_COUNT, GROUP_COUNT, 650, null);
+    List<ConnectorObject> users =
+        search(
+            "ZoomUser",
+            new OperationOptionsBuilder()
+                .setAttributesToGet("EXTENSION_NUMBER", "SITE_CODE")
+                .build());
+    int laterPageSites = 0;
+    for (ConnectorObject user : users) {
+      Attribute siteCode = user.getAttributeByName("SITE_CODE");
+      if (siteCode != null && ((Integer) siteCode.getValue().get(0)) >= 400) {
+        laterPageSites++;
+      }
+    }
+    assertTrue(laterPageSites > 0);
+    // The site listing is read once, following its next_page_token to the last page
+    assertEquals(getPageCount(650), simulator.getRequestCount("GET /phone/sites"));
+  }
+
+  @Test
+  public void test200ListGroupMembers() {
+    List<ConnectorObject> groups =
+        search(
+            "ZoomGroup",
+            new OperationOptionsBuilder()
+                .setAttributesToGet(GROUP_NAME.name(), MEMBER_IDS.name())
+                .build());
+    assertEquals(GROUP_COUNT, groups.size());
+    for (ConnectorObject group : groups) {
+      Attribute members = group.getAttributeByName(MEMBER_IDS.name());
+      assertNotNull(members);
+      assertEquals(
+          simulator.getMemberIds(group.getUid().getUidValue()), new HashSet<>(members.getValue()));
+    }
+  }
+
+  @Test
+  public void test202ListGroupsPageByPage() {
+    ZoomDriver driver = (ZoomDriver) connector.getDriver();
+    ResultsPaginator paginator = new ResultsPaginator(7, 1);
+    Set<String> groupIds = new HashSet<>();
+    int calls = 0;
+    do {
+      // Each call resumes at the next_page_token held by the paginator token
+      for (ZoomGroup group : new ZoomGroupsInvocator().getAll(driver, null, paginator, null)) {
+        assertTrue(groupIds.add(group.getId()), group.getId());
+      }
+      calls++;
+    } while (paginator.getTokenAsString() != null && calls < 100);
+    assertEquals(simulator.getGroupIds(), groupIds);
+    assertEquals((GROUP_COUNT + 6) / 7, calls);
+    assertEquals(calls, simulator.getRequestCount("GET /groups"));
+  }
+
+  @Test
+  public void test205ListMembersOfLargeGroups() throws IOException {
+    teardown();
+    // Two groups of the 2000 users have several pages of members each
+    start(2000, 2, SITE_COUNT, null);
+    List<ConnectorObject> groups =
+        search(
+            "ZoomGroup",
+            new OperationOptionsBuilder()
+                .setAttributesToGet(GROUP_NAME.name(), MEMBER_IDS.name())
+                .build());
+    assertEquals(2, groups.size());
+    int pageCount = 0;
+    for (ConnectorObject group : groups) {
+      Set<String> memberIds = simulator.getMemberIds(group.getUid().getUidValue());
+      assertTrue(memberIds.size() > 300);
+      assertEquals(
+          memberIds, new HashSet<>(group.getAttributeByName(MEMBER_IDS.name()).getValue()));
+      pageCount += getPageCount(memberIds.size());
+    }
+    // Each page of members is read once
+    assertEquals(pageCount, simulator.getRequestCount("GET /groups/{id}/members"));
+  }
+
+  @Test
+  public void test210AddUsersToGroup() {
+    String groupId = simulator.getGroupIds().iterator().next();
+    Set<String> before = simulator.getMemberIds(groupId);
+    Set<String> userIds = new HashSet<>();
+    for (ConnectorObject user :
+        search("ZoomUser", new OperationOptionsBuilder().setAttributesToGet("EMAIL").build())) {
+      if (!before.contains(user.getUid().getUidValue()) && userIds.size() < 5) {
+        userIds.add(user.getUid().getUidValue());
+      }
+    }
+    for (String userId : userIds) {
+      Set<AttributeDelta> deltas = new HashSet<>();
+      deltas.add(new AttributeDeltaBuilder().setName("GROUP_IDS").addValueToAdd(groupId).build());
+      connector.updateDelta(
+          new ObjectClass("ZoomUser"),
+          new Uid(userId),
+          deltas,
+          new OperationOptionsBuilder().build());
+    }
+    assertTrue(simulator.getMemberIds(groupId).containsAll(userIds));
+  }
+
+  private Uid createUser(String email) {
+    Set<Attribute> attributes = new HashSet<>();
+    attributes.add(new AttributeBuilder().setName("EMAIL").addValue(email).build());
+    attributes.add(new AttributeBuilder().setName("FIRST_NAME").addValue("Created").build());
+    attributes.add(new AttributeBuilder().setName("LAST_NAME").addValue("User").build());
+    return connector.create(
+        new ObjectClass("ZoomUser"), attributes, new OperationOptionsBuilder().build());
+  }
+
+  /** @return API metrics of the connector, as published through JMX */
+  private ZoomApiMetricsMXBean getMetrics() throws JMException {
+    return JMX.newMXBeanProxy(
+        ManagementFactory.getPlatformMBeanServer(),
+        new ObjectName(
+            "com.exclamationlabs.connid.zoom:type=ZoomApiMetrics,account="
+                + ObjectName.quote("1234")
+                + ",service="
+                + ObjectName.quote(simulator.getServiceUrl())),
+        ZoomApiMetricsMXBean.class);
+  }
+
+  /** @return Number of 300-item pages of a listing, which has at least one page */
+  private static int getPageCount(int userCount) {
+    return Math.max(1, (userCount + 299) / 300);
+  }
+
+  private List<ConnectorObject> search(String objectClass, OperationOptions options) {
+    List<ConnectorObject> results = new ArrayList<>();
+    connector.executeQuery(
+        new ObjectClass(objectClass),
+        null,
+        connectorObject -> {
+          results.add(connectorObject);
+          return true;
+        },
+        options);
+    return results;
+  }
+}
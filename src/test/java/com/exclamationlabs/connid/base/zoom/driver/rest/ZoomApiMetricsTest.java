@@ -0,0 +1,123 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomApiMetricsTest {
+
+  private static final String SERVICE_URL = "https://api.zoom.us/v2";
+
+  private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+  private List<ZoomApiMetrics> registered;
+
+  @BeforeEach
+  public void setup() {
+    registered = new ArrayList<>();
+  }
+
+  @AfterEach
+  public void teardown() {
+    registered.forEach(ZoomApiMetrics::unregister);
+  }
+
+  /** @return Metrics of a driver of the account, published through JMX */
+  private ZoomApiMetrics register(String accountId) {
+    ZoomConfiguration configuration = new ZoomConfiguration();
+    configuration.setAccountId(accountId);
+    configuration.setServiceUrl(SERVICE_URL);
+    ZoomApiMetrics metrics =
+        new ZoomApiMetrics(
+            new ZoomDriver() {
+              @Override
+              public ZoomConfiguration getConfiguration() {
+                return configuration;
+              }
+            });
+    metrics.register();
+    registered.add(metrics);
+    return metrics;
+  }
+
+  private static ObjectName name(String accountId, Integer instance) throws JMException {
+    return new ObjectName(
+        "com.exclamationlabs.connid.zoom:type=ZoomApiMetrics,account="
+            + ObjectName.quote(accountId)
+            + ",service="
+            + ObjectName.quote(SERVICE_URL)
+            + (instance == null ? "" : ",instance=" + instance));
+  }
+
+  private Set<ObjectName> names(String accountId) throws JMException {
+    return server.queryNames(
+        new ObjectName(
+            "com.exclamationlabs.connid.zoom:type=ZoomApiMetrics,account="
+                + ObjectName.quote(accountId)
+                + ",*"),
+        null);
+  }
+
+  @Test
+  public void test100MetricsArePublishedUnderAccountName() throws JMException {
+    ZoomApiMetrics metrics = register("acct-100");
+    assertEquals(Set.of(name("acct-100", null)), names("acct-100"));
+    ZoomApiMetricsMXBean published =
+        JMX.newMXBeanProxy(server, name("acct-100", null), ZoomApiMetricsMXBean.class);
+    assertEquals(0L, published.getRequestCount());
+
+    // registering again keeps the published name
+    metrics.register();
+    assertEquals(1, names("acct-100").size());
+
+    metrics.unregister();
+    assertTrue(names("acct-100").isEmpty());
+  }
+
+  @Test
+  public void test110FurtherDriversOfAccountAreNumbered() throws JMException {
+    register("acct-110");
+    ZoomApiMetrics second = register("acct-110");
+    register("acct-110");
+    assertEquals(
+        Set.of(name("acct-110", null), name("acct-110", 2), name("acct-110", 3)),
+        names("acct-110"));
+
+    // the lowest free instance number is taken again
+    second.unregister();
+    register("acct-110");
+    assertEquals(
+        Set.of(name("acct-110", null), name("acct-110", 2), name("acct-110", 3)),
+        names("acct-110"));
+  }
+
+  @Test
+  public void test120AccountsAreNamedApart() throws JMException {
+    register("acct-120");
+    register("acct-120,other=\"x\"");
+    assertEquals(Set.of(name("acct-120", null)), names("acct-120"));
+    assertEquals(Set.of(name("acct-120,other=\"x\"", null)), names("acct-120,other=\"x\""));
+  }
+}
@@ -0,0 +1,252 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomBatchQueueTest {
+
+  private static final long LONG_WINDOW = TimeUnit.MINUTES.toMillis(1);
+
+  private ExecutorService submitters;
+  private ScheduledExecutorService flushExecutor;
+  private Function<List<String>, List<String>> laterSender;
+  private List<List<String>> batches;
+  private List<ZoomOperationContext> contexts;
+  private AtomicInteger calls;
+  private CountDownLatch firstStarted;
+  private CountDownLatch firstReleased;
+
+  @BeforeEach
+  public void setup() {
+    submitters = Executors.newCachedThreadPool();
+    flushExecutor = Executors.newScheduledThreadPool(2);
+    laterSender = this::answer;
+    batches = Collections.synchronizedList(new ArrayList<>());
+    contexts = Collections.synchronizedList(new ArrayList<>());
+    calls = new AtomicInteger();
+    firstStarted = new CountDownLatch(1);
+    firstReleased = new CountDownLatch(1);
+  }
+
+  @AfterEach
+  public void teardown() {
+    firstReleased.countDown();
+    submitters.shutdownNow();
+    flushExecutor.shutdownNow();
+  }
+
+  private ZoomBatchQueue<String, String> queue(int batchSize, long windowMillis) {
+    return new ZoomBatchQueue<>(batchSize, windowMillis, flushExecutor, this::send);
+  }
+
+  /**
+   * Records each batch. The first batch waits to be released and is answered "item!" per item, the
+   * later ones are answered by the later sender.
+   */
+  private List<String> send(List<String> items) {
+    batches.add(new ArrayList<>(items));
+    contexts.add(ZoomOperationContext.current());
+    if (calls.getAndIncrement() > 0) {
+      return laterSender.apply(items);
+    }
+    firstStarted.countDown();
+    try {
+      firstReleased.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return answer(items);
+  }
+
+  private List<String> answer(List<String> items) {
+    List<String> results = new ArrayList<>();
+    for (String item : items) {
+      results.add(item + "!");
+    }
+    return results;
+  }
+
+  /** Submits "a" on another thread and waits until its batch is being sent. */
+  private CompletableFuture<String> startFirstBatch(ZoomBatchQueue<String, String> queue)
+      throws InterruptedException {
+    CompletableFuture<String> first =
+        CompletableFuture.supplyAsync(() -> queue.submit("a"), submitters);
+    assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+    return first;
+  }
+
+  private static String get(CompletableFuture<String> result) throws Exception {
+    return result.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void test100SendsLoneItemAtOnce() {
+    ZoomBatchQueue<String, String> queue = queue(10, LONG_WINDOW);
+    firstReleased.countDown();
+    long start = System.nanoTime();
+    assertEquals("a!", queue.submit("a"));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    assertEquals(Collections.singletonList(Arrays.asList("a")), batches);
+    assertTrue(queue.isIdle());
+  }
+
+  @Test
+  public void test110ZeroWindowSendsEachItemAtOnce() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(10, 0L);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    // sent by this thread although a batch is being sent
+    assertEquals("b!", get(queue.enqueue("b")));
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b")), batches);
+  }
+
+  @Test
+  public void test120SendsCollectedItemsOnceBatchBeingSentCompletes() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(10, LONG_WINDOW);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    CompletableFuture<String> second = queue.enqueue("b");
+    CompletableFuture<String> third = queue.enqueue("c");
+    assertFalse(queue.isIdle());
+    assertEquals(1, batches.size());
+
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    assertEquals("b!", get(second));
+    assertEquals("c!", get(third));
+    assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b", "c")), batches);
+  }
+
+  @Test
+  public void test130SendsFullBatchWithoutWaiting() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(3, LONG_WINDOW);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    CompletableFuture<String> second = queue.enqueue("b");
+    CompletableFuture<String> third = queue.enqueue("c");
+    // fills the batch, which is sent by this thread while the first one is still being sent
+    CompletableFuture<String> fourth = queue.enqueue("d");
+    assertEquals("b!", get(second));
+    assertEquals("c!", get(third));
+    assertEquals("d!", get(fourth));
+    assertFalse(first.isDone());
+
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b", "c", "d")), batches);
+  }
+
+  @Test
+  public void test140SendsCollectedItemsWhenWindowElapses() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(10, 50L);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    CompletableFuture<String> second = queue.enqueue("b");
+    CompletableFuture<String> third = queue.enqueue("c");
+    assertEquals("b!", get(second));
+    assertEquals("c!", get(third));
+    assertFalse(first.isDone());
+
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b", "c")), batches);
+    assertTrue(queue.isIdle());
+  }
+
+  @Test
+  public void test150MissingResultsAreNull() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(10, LONG_WINDOW);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    laterSender = items -> Collections.singletonList("only");
+    CompletableFuture<String> second = queue.enqueue("b");
+    CompletableFuture<String> third = queue.enqueue("c");
+
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    assertEquals("only", get(second));
+    assertNull(get(third));
+  }
+
+  @Test
+  public void test160FailureIsReportedToEachItemOfBatch() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(10, LONG_WINDOW);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    laterSender =
+        items -> {
+          throw new ConnectorException("batch failed");
+        };
+    CompletableFuture<String> second = queue.enqueue("b");
+    CompletableFuture<String> third = queue.enqueue("c");
+
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    ConnectorException failure =
+        assertThrows(ConnectorException.class, () -> ZoomBatchQueue.await(second));
+    assertEquals("batch failed", failure.getMessage());
+    failure = assertThrows(ConnectorException.class, () -> ZoomBatchQueue.await(third));
+    assertEquals("batch failed", failure.getMessage());
+    assertTrue(queue.isIdle());
+  }
+
+  @Test
+  public void test170FlushedBatchRunsWithContextOfFirstItem() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(10, 50L);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    ZoomOperationContext.begin("create", null, null);
+    CompletableFuture<String> second = queue.enqueue("b");
+    ZoomOperationContext context = ZoomOperationContext.end();
+    assertEquals("b!", get(second));
+
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    assertNull(contexts.get(0));
+    assertSame(context, contexts.get(1));
+  }
+
+  @Test
+  public void test180SendsItemsInlineOnceFlushExecutorIsShutDown() throws Exception {
+    ZoomBatchQueue<String, String> queue = queue(10, LONG_WINDOW);
+    CompletableFuture<String> first = startFirstBatch(queue);
+    CompletableFuture<String> second = queue.enqueue("b");
+    flushExecutor.shutdown();
+    CompletableFuture<String> third = queue.enqueue("c");
+    assertFalse(third.isDone());
+
+    // the collected items are sent by the thread that sent the first batch
+    firstReleased.countDown();
+    assertEquals("a!", get(first));
+    assertEquals("b!", get(second));
+    assertEquals("c!", get(third));
+    assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b", "c")), batches);
+
+    // nothing would flush a new window, so the item is sent by its submitter
+    assertEquals("d!", queue.submit("d"));
+    assertTrue(queue.isIdle());
+  }
+}
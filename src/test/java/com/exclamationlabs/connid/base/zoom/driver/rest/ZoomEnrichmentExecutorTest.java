@@ -0,0 +1,164 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomEnrichmentExecutorTest {
+
+  private int concurrency;
+  private ZoomEnrichmentExecutor executor;
+
+  @BeforeEach
+  public void setup() {
+    concurrency = 4;
+    executor =
+        new ZoomEnrichmentExecutor(
+            new ZoomDriver() {
+              @Override
+              public int getPhoneEnrichmentConcurrency() {
+                return concurrency;
+              }
+            });
+  }
+
+  @AfterEach
+  public void teardown() {
+    executor.shutdown();
+  }
+
+  /** An item of a listing page, completed in place by the lookup. */
+  private static final class Item {
+    private final int position;
+    private String lookedUp;
+
+    private Item(int positionInput) {
+      position = positionInput;
+    }
+  }
+
+  private static List<Item> items(int count) {
+    List<Item> items = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      items.add(new Item(i));
+    }
+    return items;
+  }
+
+  @Test
+  public void test100LookupsRunConcurrentlyUpToLimit() {
+    List<Item> items = items(4);
+    CountDownLatch allStarted = new CountDownLatch(4);
+    executor.forEach(
+        items,
+        item -> {
+          allStarted.countDown();
+          try {
+            // only returns early if the four lookups run at the same time
+            assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          item.lookedUp = "item " + item.position;
+        });
+    for (Item item : items) {
+      assertEquals("item " + item.position, item.lookedUp);
+    }
+  }
+
+  @Test
+  public void test110ConcurrencyIsCapped() {
+    concurrency = 3;
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    executor.forEach(
+        items(30),
+        item -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          threads.add(Thread.currentThread().getName());
+          try {
+            Thread.sleep(5L);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          running.decrementAndGet();
+        });
+    assertTrue(maxRunning.get() <= 3, "running " + maxRunning.get());
+    assertEquals(Set.of("zoom-enrichment"), threads);
+  }
+
+  @Test
+  public void test120SerialWithoutConcurrency() {
+    concurrency = 1;
+    Thread caller = Thread.currentThread();
+    executor.forEach(items(5), item -> assertSame(caller, Thread.currentThread()));
+  }
+
+  @Test
+  public void test130FailureIsRethrownAfterAllLookups() {
+    List<Item> items = items(10);
+    ConnectorException fault =
+        assertThrows(
+            ConnectorException.class,
+            () ->
+                executor.forEach(
+                    items,
+                    item -> {
+                      if (item.position == 2) {
+                        throw new ConnectorException("phone profile failed");
+                      }
+                      item.lookedUp = "done";
+                    }));
+    assertEquals("phone profile failed", fault.getMessage());
+    assertEquals(9, items.stream().filter(item -> item.lookedUp != null).count());
+
+    RuntimeException other = new IllegalStateException("unexpected");
+    fault =
+        assertThrows(
+            ConnectorException.class,
+            () ->
+                executor.forEach(
+                    Arrays.asList(items.get(0), items.get(1)),
+                    item -> {
+                      throw other;
+                    }));
+    assertSame(other, fault.getCause());
+  }
+
+  @Test
+  public void test140LookupsSeeOperationContext() {
+    ZoomOperationContext.begin("search", new ObjectClass("ZoomUser"), null);
+    try {
+      ZoomOperationContext context = ZoomOperationContext.current();
+      assertNotNull(context);
+      executor.forEach(items(6), item -> assertSame(context, ZoomOperationContext.current()));
+    } finally {
+      ZoomOperationContext.end();
+    }
+  }
+}
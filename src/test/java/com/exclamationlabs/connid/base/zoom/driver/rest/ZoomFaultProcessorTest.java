@@ -0,0 +1,114 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.connector.driver.exception.DriverRenewableTokenExpiredException;
+import com.google.gson.GsonBuilder;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.identityconnectors.framework.common.exceptions.AlreadyExistsException;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.junit.jupiter.api.Test;
+
+public class ZoomFaultProcessorTest {
+
+  private final ZoomFaultProcessor processor = ZoomFaultProcessor.getInstance();
+  private final GsonBuilder gsonBuilder = new GsonBuilder();
+
+  private static HttpResponse response(int status, String body, ContentType contentType) {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "Fault");
+    response.setEntity(new StringEntity(body, contentType));
+    response.setHeader("Content-Type", contentType.toString());
+    return response;
+  }
+
+  private void process(int status, String body) {
+    processor.process(response(status, body, ContentType.APPLICATION_JSON), gsonBuilder);
+  }
+
+  @Test
+  public void test100NotFoundAndExistingUserAreIgnored() {
+    process(404, "{\"code\":1001,\"message\":\"User does not exist: a@b.com\"}");
+    process(404, "{\"code\":4130,\"message\":\"A group with this 1 does not exist.\"}");
+    process(409, "{\"code\":1005,\"message\":\"User already in the account: a@b.com\"}");
+    process(400, "{\"code\":1116,\"message\":\"Requires a managed domain\"}");
+  }
+
+  @Test
+  public void test110ValidationFailureIsInvalidAttributeValue() {
+    assertThrows(
+        InvalidAttributeValueException.class,
+        () ->
+            process(
+                400,
+                "{\"code\":300,\"message\":\"Validation Failed.\","
+                    + "\"errors\":[{\"field\":\"email\",\"message\":\"Invalid field.\"}]}"));
+  }
+
+  @Test
+  public void test120ExistingGroupNameIsAlreadyExists() {
+    assertThrows(
+        AlreadyExistsException.class,
+        () -> process(409, "{\"code\":4132,\"message\":\"Group name Sales is already in use.\"}"));
+  }
+
+  @Test
+  public void test130PaidSubscriptionAndExpiredToken() {
+    assertThrows(
+        PaidAccountRequiredException.class,
+        () -> process(400, "{\"code\":200,\"message\":\"Only available for paid users\"}"));
+    assertThrows(
+        DriverRenewableTokenExpiredException.class,
+        () -> process(401, "{\"code\":124,\"message\":\"Access token is expired.\"}"));
+  }
+
+  @Test
+  public void test140UnknownFaultsAreReported() {
+    ConnectorException fault =
+        assertThrows(
+            ConnectorException.class,
+            () -> process(400, "{\"message\":\"Not recognized\",\"code\":9999}"));
+    assertTrue(fault.getMessage().contains("9999"), fault.getMessage());
+    fault = assertThrows(ConnectorException.class, () -> process(500, "{\"message\":\"no code\"}"));
+    assertTrue(fault.getMessage().contains("no code"), fault.getMessage());
+  }
+
+  @Test
+  public void test150NonJsonFaultIsReported() {
+    ConnectorException fault =
+        assertThrows(
+            ConnectorException.class,
+            () ->
+                processor.process(
+                    response(502, "<html>Bad Gateway</html>", ContentType.TEXT_HTML), gsonBuilder));
+    assertTrue(fault.getMessage().contains("Bad Gateway"), fault.getMessage());
+  }
+
+  @Test
+  public void test160FaultCodeIsReadFromTopLevelOnly() {
+    assertEquals(
+        Integer.valueOf(1001),
+        ZoomFaultProcessor.readFaultCode(
+            "{\"message\":\"User does not exist\",\"errors\":[{\"code\":300}],\"code\":1001}"));
+    assertNull(ZoomFaultProcessor.readFaultCode("{\"errors\":[{\"code\":300}]}"));
+    assertNull(ZoomFaultProcessor.readFaultCode("{\"code\":\"1001\"}"));
+    assertNull(ZoomFaultProcessor.readFaultCode("[1001]"));
+    assertNull(ZoomFaultProcessor.readFaultCode("not json"));
+  }
+}
@@ -0,0 +1,130 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomGroupMembershipIndexTest {
+
+  private Set<String> zoomMembers;
+  private AtomicInteger reads;
+  private long timeToLive;
+  private CountDownLatch readStarted;
+  private CountDownLatch readReleased;
+  private ZoomGroupMembershipIndex index;
+
+  @BeforeEach
+  public void setup() {
+    zoomMembers = Collections.synchronizedSet(new HashSet<>(Arrays.asList("u1", "u2")));
+    reads = new AtomicInteger();
+    timeToLive = TimeUnit.MINUTES.toMillis(5);
+    readStarted = new CountDownLatch(1);
+    readReleased = new CountDownLatch(0);
+    index =
+        new ZoomGroupMembershipIndex(
+            new ZoomDriver() {
+              @Override
+              public long getCacheTimeToLiveMillis() {
+                return timeToLive;
+              }
+            }) {
+          /** Answers the members held by the test, as Zoom would list them. */
+          @Override
+          Set<String> readMemberIds(String groupId) {
+            reads.incrementAndGet();
+            Set<String> members = new HashSet<>(zoomMembers);
+            readStarted.countDown();
+            try {
+              readReleased.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return Collections.unmodifiableSet(members);
+          }
+        };
+  }
+
+  @AfterEach
+  public void teardown() {
+    readReleased.countDown();
+  }
+
+  @Test
+  public void test100MembersAreReadOnceWithinTimeToLive() {
+    assertEquals(new HashSet<>(Arrays.asList("u1", "u2")), index.getMemberIds("g1"));
+    assertEquals(new HashSet<>(Arrays.asList("u1", "u2")), index.getMemberIds("g1"));
+    assertEquals(1, reads.get());
+  }
+
+  @Test
+  public void test110ExpiredMembersAreReadAgain() {
+    timeToLive = 0L;
+    index.getMemberIds("g1");
+    zoomMembers.add("u3");
+    assertEquals(new HashSet<>(Arrays.asList("u1", "u2", "u3")), index.getMemberIds("g1"));
+    assertEquals(2, reads.get());
+  }
+
+  @Test
+  public void test120ChangesAreAppliedToKnownMembers() {
+    index.getMemberIds("g1");
+    index.memberAdded("g1", "u3");
+    index.memberRemoved("g1", "u1");
+    assertEquals(new HashSet<>(Arrays.asList("u2", "u3")), index.getMemberIds("g1"));
+    index.userDeleted("u2");
+    assertEquals(Collections.singleton("u3"), index.getMemberIds("g1"));
+    assertEquals(1, reads.get());
+
+    index.groupDeleted("g1");
+    index.getMemberIds("g1");
+    assertEquals(2, reads.get());
+  }
+
+  @Test
+  public void test130MembersReadDuringChangeAreNotKept() throws Exception {
+    readReleased = new CountDownLatch(1);
+    CompletableFuture<Set<String>> read =
+        CompletableFuture.supplyAsync(() -> index.getMemberIds("g1"));
+    assertTrue(readStarted.await(5, TimeUnit.SECONDS));
+    // added while the listing is read, which does not include it
+    zoomMembers.add("u3");
+    index.memberAdded("g1", "u3");
+    readReleased.countDown();
+    assertEquals(new HashSet<>(Arrays.asList("u1", "u2")), read.get(5, TimeUnit.SECONDS));
+
+    assertEquals(new HashSet<>(Arrays.asList("u1", "u2", "u3")), index.getMemberIds("g1"));
+    assertEquals(2, reads.get());
+    index.getMemberIds("g1");
+    assertEquals(2, reads.get());
+  }
+
+  @Test
+  public void test140InvalidatedMembersAreReadAgain() {
+    index.getMemberIds("g1");
+    index.invalidate();
+    index.getMemberIds("g1");
+    assertEquals(2, reads.get());
+  }
+}
@@ -0,0 +1,135 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomGroup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomGroupNameIndexTest {
+
+  private List<ZoomGroup> zoomGroups;
+  private int reads;
+  private long timeToLive;
+  private long missReloadInterval;
+  private ZoomGroupNameIndex index;
+
+  @BeforeEach
+  public void setup() {
+    zoomGroups = new ArrayList<>();
+    zoomGroups.add(group("g1", "Sales"));
+    reads = 0;
+    timeToLive = TimeUnit.MINUTES.toMillis(5);
+    missReloadInterval = TimeUnit.SECONDS.toMillis(30);
+    index =
+        new ZoomGroupNameIndex(
+            new ZoomDriver() {
+              @Override
+              public long getCacheTimeToLiveMillis() {
+                return timeToLive;
+              }
+            }) {
+          @Override
+          long getMissReloadIntervalMillis() {
+            return missReloadInterval;
+          }
+
+          /** Answers the groups held by the test, as Zoom would list them. */
+          @Override
+          List<ZoomGroup> readGroups() {
+            reads++;
+            return new ArrayList<>(zoomGroups);
+          }
+        };
+  }
+
+  private static ZoomGroup group(String id, String name) {
+    ZoomGroup group = new ZoomGroup();
+    group.setId(id);
+    group.setName(name);
+    return group;
+  }
+
+  @Test
+  public void test100GroupsAreReadOnceWithinTimeToLive() {
+    assertEquals("g1", index.getByName("Sales").getId());
+    assertEquals("g1", index.getByName(" sALES ").getId());
+    assertEquals(1, reads);
+    // callers get a copy, not the indexed group
+    index.getByName("Sales").setName("Changed");
+    assertEquals("Sales", index.getByName("sales").getName());
+  }
+
+  @Test
+  public void test110InvalidatedIndexIsReadAgain() {
+    index.getByName("Sales");
+    zoomGroups.set(0, group("g1", "Marketing"));
+    index.invalidate();
+    assertEquals("g1", index.getByName("Marketing").getId());
+    assertEquals(2, reads);
+    // the old name left the index with the reload, and the miss does not reload again
+    assertNull(index.getByName("Sales"));
+    assertEquals(2, reads);
+  }
+
+  @Test
+  public void test120ExpiredIndexIsReadAgain() {
+    timeToLive = 0L;
+    index.getByName("Sales");
+    index.getByName("Sales");
+    assertEquals(2, reads);
+  }
+
+  @Test
+  public void test130MissReloadIsThrottled() {
+    index.getByName("Sales");
+    zoomGroups.add(group("g2", "Support"));
+    assertNull(index.getByName("Support"));
+    assertEquals(1, reads);
+
+    missReloadInterval = 0L;
+    assertEquals("g2", index.getByName("Support").getId());
+    assertEquals(2, reads);
+  }
+
+  @Test
+  public void test140CreatedAndDeletedGroupsUpdateLoadedIndex() {
+    // nothing is put before the index is loaded, since the load lists the group anyway
+    index.put(group("g0", "Early"));
+    index.getByName("Sales");
+    index.put(group("g2", "Support"));
+    assertEquals("g2", index.getByName("support").getId());
+
+    // a group put again under a new name is no longer found by its old one
+    index.put(group("g2", "Help Desk"));
+    assertEquals("g2", index.getByName("Help Desk").getId());
+    assertNull(index.getByName("Support"));
+    assertNull(index.getByName("Early"));
+
+    index.remove("g1");
+    assertNull(index.getByName("Sales"));
+    assertEquals(1, reads);
+  }
+
+  @Test
+  public void test150BlankLookupsReadNothing() {
+    assertNull(index.getByName(" "));
+    assertNull(index.getByName(null));
+    assertEquals(0, reads);
+  }
+}
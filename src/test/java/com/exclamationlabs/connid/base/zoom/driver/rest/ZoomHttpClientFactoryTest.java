@@ -0,0 +1,115 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.configuration.ZoomConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomHttpClientFactoryTest {
+
+  private List<ZoomHttpClientFactory> factories;
+
+  @BeforeEach
+  public void setup() {
+    factories = new ArrayList<>();
+  }
+
+  @AfterEach
+  public void teardown() {
+    factories.forEach(ZoomHttpClientFactory::close);
+  }
+
+  /** @return Factory of a driver whose configuration has the given pool settings */
+  private ZoomHttpClientFactory factory(Integer poolSize, Integer maxPerRoute) {
+    ZoomConfiguration configuration = new ZoomConfiguration();
+    configuration.setConnectionPoolSize(poolSize);
+    configuration.setMaxConnectionsPerRoute(maxPerRoute);
+    configuration.setValidateConnectionAfterInactivity(1500);
+    ZoomHttpClientFactory factory =
+        new ZoomHttpClientFactory(
+            new ZoomDriver() {
+              @Override
+              public ZoomConfiguration getConfiguration() {
+                return configuration;
+              }
+            });
+    factories.add(factory);
+    return factory;
+  }
+
+  @Test
+  public void test100PoolHasConfiguredSettings() {
+    ZoomHttpClientFactory factory = factory(7, 12);
+    assertNull(factory.getConnectionManager());
+    CloseableHttpClient client = factory.getClient(builder -> {});
+    assertSame(client, factory.getClient(builder -> {}));
+    PoolingHttpClientConnectionManager manager = factory.getConnectionManager();
+    assertEquals(7, manager.getMaxTotal());
+    // a route may not use more connections than the pool has
+    assertEquals(7, manager.getDefaultMaxPerRoute());
+    assertEquals(1500, manager.getValidateAfterInactivity());
+  }
+
+  @Test
+  public void test110UnsetSettingsUseDefaults() {
+    ZoomHttpClientFactory factory = factory(null, 0);
+    factory.getClient(builder -> {});
+    assertEquals(20, factory.getConnectionManager().getMaxTotal());
+    assertEquals(20, factory.getConnectionManager().getDefaultMaxPerRoute());
+  }
+
+  @Test
+  public void test120DriversWithSameSettingsSharePool() {
+    ZoomHttpClientFactory first = factory(9, 3);
+    ZoomHttpClientFactory second = factory(9, 3);
+    ZoomHttpClientFactory other = factory(9, 4);
+    first.getClient(builder -> {});
+    second.getClient(builder -> {});
+    other.getClient(builder -> {});
+    assertSame(first.getConnectionManager(), second.getConnectionManager());
+    assertNotSame(first.getConnectionManager(), other.getConnectionManager());
+  }
+
+  @Test
+  public void test130PoolIsClosedWithLastDriver() {
+    ZoomHttpClientFactory first = factory(11, 3);
+    ZoomHttpClientFactory second = factory(11, 3);
+    first.getClient(builder -> {});
+    second.getClient(builder -> {});
+    PoolingHttpClientConnectionManager manager = first.getConnectionManager();
+    HttpRoute route = new HttpRoute(new HttpHost("localhost"));
+
+    first.close();
+    assertNull(first.getConnectionManager());
+    // still open for the second driver
+    manager.requestConnection(route, null).cancel();
+
+    second.close();
+    assertThrows(IllegalStateException.class, () -> manager.requestConnection(route, null));
+
+    // a driver created afterwards gets a new pool
+    ZoomHttpClientFactory third = factory(11, 3);
+    third.getClient(builder -> {});
+    assertNotSame(manager, third.getConnectionManager());
+  }
+}
@@ -0,0 +1,137 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.model.response.ListSitesResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomPagePrefetcherTest {
+
+  private static final Function<String, String> NEXT_PAGE_URI = token -> "/phone/sites?t=" + token;
+
+  private Map<String, String> nextPageTokens;
+  private List<String> requestedUris;
+  private CountDownLatch pageReleased;
+  private long claimTimeout;
+  private ZoomPagePrefetcher prefetcher;
+
+  @BeforeEach
+  public void setup() {
+    nextPageTokens = new ConcurrentHashMap<>();
+    requestedUris = new CopyOnWriteArrayList<>();
+    pageReleased = new CountDownLatch(0);
+    claimTimeout = TimeUnit.SECONDS.toMillis(5);
+    prefetcher =
+        new ZoomPagePrefetcher(new ZoomDriver()) {
+          @Override
+          long getClaimTimeoutMillis() {
+            return claimTimeout;
+          }
+
+          /** Answers a page whose next_page_token is held by the test, "fail" failing it. */
+          @Override
+          <R> R readPage(Class<R> responseType, String requestUri) {
+            requestedUris.add(requestUri);
+            try {
+              pageReleased.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            if (requestUri.endsWith("fail")) {
+              throw new ConnectorException("page failed");
+            }
+            ListSitesResponse page = new ListSitesResponse();
+            page.setNextPageToken(nextPageTokens.getOrDefault(requestUri, ""));
+            return responseType.cast(page);
+          }
+        };
+  }
+
+  @AfterEach
+  public void teardown() {
+    pageReleased.countDown();
+    prefetcher.shutdown();
+  }
+
+  @Test
+  public void test100ClaimReturnsPrefetchedPageOnce() {
+    nextPageTokens.put("/phone/sites?t=a", "b");
+    prefetcher.prefetch(ListSitesResponse.class, "/phone/sites?t=a", 1, NEXT_PAGE_URI);
+    ListSitesResponse page = prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=a");
+    assertNotNull(page);
+    assertEquals("b", page.getNextPageToken());
+    assertNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=a"));
+    assertEquals(1, requestedUris.size());
+  }
+
+  @Test
+  public void test110UnknownPageIsNotClaimed() {
+    assertNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=a"));
+    assertTrue(requestedUris.isEmpty());
+  }
+
+  @Test
+  public void test120PrefetchFollowsTokensUpToDepth() {
+    nextPageTokens.put("/phone/sites?t=a", "b");
+    nextPageTokens.put("/phone/sites?t=b", "c");
+    prefetcher.prefetch(ListSitesResponse.class, "/phone/sites?t=a", 2, NEXT_PAGE_URI);
+    assertNotNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=a"));
+    assertEquals(
+        "c", prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=b").getNextPageToken());
+    // the page after the second one is beyond the depth
+    assertNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=c"));
+    assertEquals(2, requestedUris.size());
+  }
+
+  @Test
+  public void test130ClaimGivesUpAfterTimeout() {
+    pageReleased = new CountDownLatch(1);
+    claimTimeout = 50L;
+    prefetcher.prefetch(ListSitesResponse.class, "/phone/sites?t=a", 1, NEXT_PAGE_URI);
+    long start = System.nanoTime();
+    assertNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=a"));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+    // the page is no longer pending once its claim gave up
+    pageReleased.countDown();
+    assertNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=a"));
+  }
+
+  @Test
+  public void test140FailedPrefetchIsNotClaimed() {
+    prefetcher.prefetch(ListSitesResponse.class, "/phone/sites?t=fail", 1, NEXT_PAGE_URI);
+    assertNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=fail"));
+    assertEquals(1, requestedUris.size());
+  }
+
+  @Test
+  public void test150PendingPageIsPrefetchedOnce() {
+    pageReleased = new CountDownLatch(1);
+    prefetcher.prefetch(ListSitesResponse.class, "/phone/sites?t=a", 1, NEXT_PAGE_URI);
+    prefetcher.prefetch(ListSitesResponse.class, "/phone/sites?t=a", 1, NEXT_PAGE_URI);
+    pageReleased.countDown();
+    assertNotNull(prefetcher.claim(ListSitesResponse.class, "/phone/sites?t=a"));
+    assertEquals(1, requestedUris.size());
+  }
+}
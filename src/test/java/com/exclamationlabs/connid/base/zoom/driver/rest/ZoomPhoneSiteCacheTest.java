@@ -0,0 +1,112 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneSite;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomPhoneSiteCacheTest {
+
+  private List<ZoomPhoneSite> zoomSites;
+  private int reads;
+  private long timeToLive;
+  private long missReloadInterval;
+  private ZoomPhoneSiteCache cache;
+
+  @BeforeEach
+  public void setup() {
+    zoomSites = new ArrayList<>();
+    zoomSites.add(site("s1", "Main Office"));
+    reads = 0;
+    timeToLive = TimeUnit.MINUTES.toMillis(5);
+    missReloadInterval = TimeUnit.SECONDS.toMillis(30);
+    cache =
+        new ZoomPhoneSiteCache(
+            new ZoomDriver() {
+              @Override
+              public long getCacheTimeToLiveMillis() {
+                return timeToLive;
+              }
+            }) {
+          @Override
+          long getMissReloadIntervalMillis() {
+            return missReloadInterval;
+          }
+
+          /** Answers the sites held by the test, as Zoom would list them. */
+          @Override
+          List<ZoomPhoneSite> readSites() {
+            reads++;
+            return new ArrayList<>(zoomSites);
+          }
+        };
+  }
+
+  private static ZoomPhoneSite site(String id, String name) {
+    ZoomPhoneSite site = new ZoomPhoneSite();
+    site.setId(id);
+    site.setName(name);
+    return site;
+  }
+
+  @Test
+  public void test100SitesAreReadOnceWithinTimeToLive() {
+    assertEquals("Main Office", cache.getById("s1").getName());
+    assertEquals("s1", cache.getByName(" main office ").getId());
+    assertEquals(1, reads);
+  }
+
+  @Test
+  public void test110ExpiredSitesAreReadAgain() {
+    timeToLive = 0L;
+    cache.getById("s1");
+    zoomSites.set(0, site("s1", "Head Office"));
+    assertEquals("Head Office", cache.getById("s1").getName());
+    assertEquals(2, reads);
+  }
+
+  @Test
+  public void test120MissReloadIsThrottled() {
+    cache.getById("s1");
+    zoomSites.add(site("s2", "Branch"));
+    // the sites were read less than the miss reload interval ago
+    assertNull(cache.getById("s2"));
+    assertNull(cache.getByName("Branch"));
+    assertEquals(1, reads);
+
+    missReloadInterval = 0L;
+    assertEquals("Branch", cache.getById("s2").getName());
+    assertEquals(2, reads);
+  }
+
+  @Test
+  public void test130InvalidatedSitesAreReadAgain() {
+    cache.getById("s1");
+    cache.invalidate();
+    cache.getByName("Main Office");
+    assertEquals(2, reads);
+  }
+
+  @Test
+  public void test140BlankLookupsReadNothing() {
+    assertNull(cache.getById(" "));
+    assertNull(cache.getByName(null));
+    assertEquals(0, reads);
+  }
+}
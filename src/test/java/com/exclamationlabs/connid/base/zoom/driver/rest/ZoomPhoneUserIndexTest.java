@@ -0,0 +1,140 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneUser;
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomPhoneUserIndexTest {
+
+  private List<ZoomPhoneUser> zoomPhoneUsers;
+  private boolean listingFails;
+  private int reads;
+  private long timeToLive;
+  private ZoomPhoneUserIndex index;
+
+  @BeforeEach
+  public void setup() {
+    zoomPhoneUsers = new ArrayList<>();
+    zoomPhoneUsers.add(phoneUser("u1", "1001"));
+    listingFails = false;
+    reads = 0;
+    timeToLive = TimeUnit.MINUTES.toMillis(5);
+    index =
+        new ZoomPhoneUserIndex(
+            new ZoomDriver() {
+              @Override
+              public long getCacheTimeToLiveMillis() {
+                return timeToLive;
+              }
+            }) {
+          /** Answers the phone users held by the test, as Zoom would list them. */
+          @Override
+          List<ZoomPhoneUser> readPhoneUsers() {
+            reads++;
+            if (listingFails) {
+              throw new ConnectorException("Zoom Phone is not enabled");
+            }
+            return new ArrayList<>(zoomPhoneUsers);
+          }
+        };
+  }
+
+  private static ZoomPhoneUser phoneUser(String id, String extension) {
+    ZoomPhoneUser phoneUser = new ZoomPhoneUser();
+    phoneUser.setId(id);
+    phoneUser.setExtension(extension);
+    return phoneUser;
+  }
+
+  private static ZoomUser user(String id) {
+    ZoomUser user = new ZoomUser();
+    user.setId(id);
+    return user;
+  }
+
+  @Test
+  public void test100CoversUsersOnceLoaded() {
+    assertFalse(index.covers("u1"));
+    index.ensureLoaded();
+    index.ensureLoaded();
+    assertEquals(1, reads);
+    // users without Zoom Phone are covered too, since the listing shows they have none
+    assertTrue(index.covers("u1"));
+    assertTrue(index.covers("u2"));
+    assertFalse(index.covers(null));
+  }
+
+  @Test
+  public void test110JoinsPhoneDataOfListedUsersOnly() {
+    index.ensureLoaded();
+    ZoomUser phone = user("u1");
+    ZoomUser noPhone = user("u2");
+    index.joinAll(Arrays.asList(phone, noPhone));
+    assertEquals("1001", phone.getPhoneProfile().getExtension());
+    assertTrue(phone.getFeature().getZoomPhone());
+    assertNull(noPhone.getPhoneProfile());
+    assertNull(noPhone.getFeature());
+  }
+
+  @Test
+  public void test120EvictedUserIsNotCoveredUntilReload() {
+    index.ensureLoaded();
+    index.evict("u1");
+    assertFalse(index.covers("u1"));
+    assertTrue(index.covers("u2"));
+    index.invalidate();
+    index.ensureLoaded();
+    assertTrue(index.covers("u1"));
+    assertEquals(2, reads);
+  }
+
+  @Test
+  public void test130ExpiredIndexIsReadAgain() {
+    timeToLive = 0L;
+    index.ensureLoaded();
+    assertFalse(index.covers("u1"));
+    zoomPhoneUsers.set(0, phoneUser("u1", "2002"));
+    index.ensureLoaded();
+    assertEquals(2, reads);
+
+    timeToLive = TimeUnit.MINUTES.toMillis(5);
+    ZoomUser user = user("u1");
+    index.join(user);
+    assertEquals("2002", user.getPhoneProfile().getExtension());
+  }
+
+  @Test
+  public void test140UnavailableListingIsRetriedAfterTimeToLive() {
+    listingFails = true;
+    index.ensureLoaded();
+    assertFalse(index.covers("u1"));
+    index.ensureLoaded();
+    assertEquals(1, reads);
+
+    listingFails = false;
+    index.invalidate();
+    index.ensureLoaded();
+    assertTrue(index.covers("u1"));
+    assertEquals(2, reads);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Test;
+
+public class ZoomRateLimiterTest {
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void test100BucketAllowsBurstUpToRate() {
+    ZoomRateLimiter.TokenBucket bucket = new ZoomRateLimiter.TokenBucket(10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(0L, bucket.reserve());
+    }
+    long wait = bucket.reserve();
+    assertTrue(wait > 0 && wait <= ONE_SECOND / 10, "wait " + wait);
+  }
+
+  @Test
+  public void test110ThrottleHalvesRate() {
+    ZoomRateLimiter.TokenBucket bucket = new ZoomRateLimiter.TokenBucket(10);
+    bucket.throttle(0L);
+    // no token left, the next one comes at 5 requests per second
+    long wait = bucket.reserve();
+    assertTrue(wait > ONE_SECOND / 10 && wait <= ONE_SECOND / 5, "wait " + wait);
+  }
+
+  @Test
+  public void test120ThrottleStopsAtMinimumRate() {
+    ZoomRateLimiter.TokenBucket bucket = new ZoomRateLimiter.TokenBucket(10);
+    for (int i = 0; i < 10; i++) {
+      bucket.throttle(0L);
+    }
+    long wait = bucket.reserve();
+    assertTrue(wait > ONE_SECOND / 2 && wait <= ONE_SECOND, "wait " + wait);
+  }
+
+  @Test
+  public void test130PauseHoldsRequests() {
+    ZoomRateLimiter.TokenBucket bucket = new ZoomRateLimiter.TokenBucket(10);
+    bucket.pause(500L);
+    long wait = bucket.reserve();
+    assertTrue(
+        wait > TimeUnit.MILLISECONDS.toNanos(400) && wait <= TimeUnit.MILLISECONDS.toNanos(500),
+        "wait " + wait);
+    // a shorter pause does not end the current one early
+    bucket.pause(10L);
+    assertTrue(bucket.reserve() > TimeUnit.MILLISECONDS.toNanos(400));
+  }
+
+  @Test
+  public void test140RecoverRestoresRate() {
+    ZoomRateLimiter.TokenBucket bucket = new ZoomRateLimiter.TokenBucket(10);
+    bucket.throttle(0L);
+    bucket.throttle(0L);
+    long throttledWait = bucket.reserve();
+    assertTrue(throttledWait > ONE_SECOND / 5, "wait " + throttledWait);
+    for (int i = 0; i < 100; i++) {
+      bucket.recover();
+    }
+    bucket.pause(0L);
+    long wait = bucket.reserve();
+    assertTrue(wait > ONE_SECOND / 20 && wait <= ONE_SECOND / 10, "wait " + wait);
+  }
+
+  @Test
+  public void test150AcquireWaitsForToken() throws InterruptedException {
+    ZoomRateLimiter.TokenBucket bucket = new ZoomRateLimiter.TokenBucket(10);
+    bucket.pause(100L);
+    long start = System.nanoTime();
+    long waited = bucket.acquire();
+    assertTrue(waited > TimeUnit.MILLISECONDS.toNanos(50), "waited " + waited);
+    assertTrue(System.nanoTime() - start >= waited);
+  }
+
+  @Test
+  public void test200RetryAfterSeconds() {
+    assertEquals(3000L, ZoomRateLimiter.getRetryAfterMillis(response(" 3 ")));
+    assertEquals(0L, ZoomRateLimiter.getRetryAfterMillis(response("-5")));
+  }
+
+  @Test
+  public void test210RetryAfterHttpDate() {
+    String inTenSeconds = DateUtils.formatDate(new Date(System.currentTimeMillis() + 10000L));
+    long delay = ZoomRateLimiter.getRetryAfterMillis(response(inTenSeconds));
+    // http dates have a precision of one second
+    assertTrue(delay > 8000L && delay <= 10000L, "delay " + delay);
+    String past = DateUtils.formatDate(new Date(System.currentTimeMillis() - 10000L));
+    assertEquals(0L, ZoomRateLimiter.getRetryAfterMillis(response(past)));
+  }
+
+  @Test
+  public void test220RetryAfterMissingOrInvalid() {
+    assertEquals(1000L, ZoomRateLimiter.getRetryAfterMillis(response(null)));
+    assertEquals(1000L, ZoomRateLimiter.getRetryAfterMillis(response(" ")));
+    assertEquals(1000L, ZoomRateLimiter.getRetryAfterMillis(response("soon")));
+  }
+
+  private static HttpResponse response(String retryAfter) {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 429, "Too Many Requests");
+    if (retryAfter != null) {
+      response.setHeader("Retry-After", retryAfter);
+    }
+    return response;
+  }
+}
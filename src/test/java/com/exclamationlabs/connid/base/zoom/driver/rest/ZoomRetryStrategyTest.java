@@ -0,0 +1,125 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpCoreContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomRetryStrategyTest {
+
+  private ZoomRetryStrategy strategy;
+
+  @BeforeEach
+  public void setup() {
+    strategy =
+        new ZoomRetryStrategy(
+            new ZoomDriver() {
+              @Override
+              public int getOperationRetryBudget() {
+                return 2;
+              }
+            });
+  }
+
+  @AfterEach
+  public void teardown() {
+    ZoomRetryStrategy.setIdempotent(false);
+    ZoomOperationContext.end();
+  }
+
+  @Test
+  public void test100ThrottledPostIsRetried() {
+    assertTrue(strategy.retryRequest(response(429, "1"), 1, context("POST", "/v2/users")));
+    long delay = strategy.getRetryInterval();
+    assertTrue(delay >= 500L && delay < 1500L, "delay " + delay);
+    assertEquals(1L, strategy.getRetries());
+  }
+
+  @Test
+  public void test110ServerErrorRetriedForIdempotentRequestsOnly() {
+    assertTrue(strategy.retryRequest(response(503, null), 1, context("GET", "/v2/users/1")));
+    assertFalse(strategy.retryRequest(response(503, null), 1, context("POST", "/v2/users")));
+    assertFalse(strategy.retryRequest(response(502, null), 1, context("PATCH", "/v2/users/1")));
+    assertFalse(strategy.retryRequest(response(500, null), 1, context("DELETE", "/v2/users/1")));
+
+    ZoomRetryStrategy.setIdempotent(true);
+    assertTrue(strategy.retryRequest(response(502, null), 1, context("PATCH", "/v2/users/1")));
+    assertTrue(strategy.retryRequest(response(500, null), 1, context("DELETE", "/v2/users/1")));
+    // a POST is never idempotent
+    assertFalse(strategy.retryRequest(response(503, null), 1, context("POST", "/v2/users")));
+  }
+
+  @Test
+  public void test120ClientErrorsNotRetried() {
+    assertFalse(strategy.retryRequest(response(400, null), 1, context("GET", "/v2/users/1")));
+    assertFalse(strategy.retryRequest(response(404, null), 1, context("GET", "/v2/users/1")));
+    assertFalse(strategy.retryRequest(response(501, null), 1, context("GET", "/v2/users/1")));
+    assertEquals(0L, strategy.getRetries());
+  }
+
+  @Test
+  public void test130RetriesPerRequestExhausted() {
+    // the default io error retries setting allows 2 retries
+    assertTrue(strategy.retryRequest(response(503, null), 1, context("GET", "/v2/users/1")));
+    assertTrue(strategy.retryRequest(response(503, null), 2, context("GET", "/v2/users/1")));
+    assertFalse(strategy.retryRequest(response(503, null), 3, context("GET", "/v2/users/1")));
+    assertEquals(2L, strategy.getRetries());
+    assertEquals(1L, strategy.getExhaustedRetries());
+  }
+
+  @Test
+  public void test140OperationBudgetExhausted() {
+    ZoomOperationContext.begin("search", null, null);
+    assertTrue(strategy.retryRequest(response(429, "1"), 1, context("GET", "/v2/users")));
+    assertTrue(strategy.retryRequest(response(503, null), 1, context("GET", "/v2/groups")));
+    assertFalse(strategy.retryRequest(response(429, "1"), 1, context("GET", "/v2/users")));
+    assertEquals(2, ZoomOperationContext.current().getRetries());
+    assertEquals(1L, strategy.getExhaustedBudgets());
+
+    // the next operation has its own budget
+    ZoomOperationContext.end();
+    ZoomOperationContext.begin("search", null, null);
+    assertTrue(strategy.retryRequest(response(429, "1"), 1, context("GET", "/v2/users")));
+  }
+
+  @Test
+  public void test150LongRetryAfterNotWaited() {
+    assertFalse(strategy.retryRequest(response(429, "3600"), 1, context("GET", "/v2/users")));
+    assertTrue(strategy.retryRequest(response(429, "60"), 1, context("GET", "/v2/users")));
+    assertEquals(1L, strategy.getRetries());
+  }
+
+  private static HttpResponse response(int status, String retryAfter) {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+    if (retryAfter != null) {
+      response.setHeader("Retry-After", retryAfter);
+    }
+    return response;
+  }
+
+  private static HttpCoreContext context(String method, String uri) {
+    HttpCoreContext context = HttpCoreContext.create();
+    context.setAttribute(HttpCoreContext.HTTP_REQUEST, new BasicHttpRequest(method, uri));
+    context.setAttribute(
+        ZoomRateLimiter.TEMPLATE_ATTRIBUTE, ZoomApiEndpoint.getTemplate(method, uri));
+    return context;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomStreamingSetTest {
+
+  private int walks;
+  private int pagesRead;
+  private boolean sourceClosed;
+
+  @BeforeEach
+  public void setup() {
+    walks = 0;
+    pagesRead = 0;
+    sourceClosed = false;
+  }
+
+  /** @return Set over pages of the given items, counting the walks and the pages read */
+  @SafeVarargs
+  private final ZoomStreamingSet<String> streamingSet(List<String>... pages) {
+    return new ZoomStreamingSet<>(
+        () -> {
+          walks++;
+          return new ClosablePages(Arrays.asList(pages));
+        });
+  }
+
+  @Test
+  public void test100IteratesItemsOfAllPagesInOrder() {
+    ZoomStreamingSet<String> set =
+        streamingSet(Arrays.asList("a", "b"), Collections.emptyList(), Arrays.asList("c"));
+    List<String> items = new ArrayList<>();
+    set.forEach(items::add);
+    assertEquals(Arrays.asList("a", "b", "c"), items);
+    assertEquals(1, walks);
+    assertTrue(sourceClosed);
+  }
+
+  @Test
+  public void test110IteratesAgainWithoutWalkingAgain() {
+    ZoomStreamingSet<String> set = streamingSet(Arrays.asList("a", "b"), Arrays.asList("c"));
+    List<String> first = new ArrayList<>();
+    set.forEach(first::add);
+    List<String> second = new ArrayList<>();
+    set.forEach(second::add);
+    assertEquals(first, second);
+    assertEquals(1, walks);
+    assertEquals(2, pagesRead);
+  }
+
+  @Test
+  public void test120SetMethodsReadRestOfListing() {
+    ZoomStreamingSet<String> set = streamingSet(Arrays.asList("a", "b"), Arrays.asList("c"));
+    assertEquals(3, set.size());
+    assertTrue(set.contains("c"));
+    assertFalse(set.contains("d"));
+    assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), set);
+    assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")).hashCode(), set.hashCode());
+    assertEquals("[a, b, c]", set.toString());
+    assertEquals(1, walks);
+  }
+
+  @Test
+  public void test130IsEmptyReadsFirstPageOnly() {
+    ZoomStreamingSet<String> set = streamingSet(Arrays.asList("a"), Arrays.asList("b"));
+    assertFalse(set.isEmpty());
+    assertEquals(1, pagesRead);
+    assertTrue(streamingSet().isEmpty());
+  }
+
+  @Test
+  public void test140PartialIterationContinuesSameWalk() {
+    ZoomStreamingSet<String> set = streamingSet(Arrays.asList("a"), Arrays.asList("b"));
+    Iterator<String> first = set.iterator();
+    assertEquals("a", first.next());
+    assertEquals(1, pagesRead);
+    assertEquals(2, set.size());
+    assertEquals("b", first.next());
+    assertFalse(first.hasNext());
+    assertEquals(1, walks);
+  }
+
+  @Test
+  public void test150DuplicateItemsAreListedOnce() {
+    ZoomStreamingSet<String> set = streamingSet(Arrays.asList("a", "b"), Arrays.asList("b", "c"));
+    assertEquals(3, set.size());
+  }
+
+  @Test
+  public void test160ReadAfterCloseFails() {
+    ZoomStreamingSet<String> set = streamingSet(Arrays.asList("a"), Arrays.asList("b"));
+    assertFalse(set.isEmpty());
+    set.close();
+    assertTrue(sourceClosed);
+    // the items read before the end of the operation are still available
+    assertTrue(set.iterator().hasNext());
+    assertThrows(ConnectorException.class, set::size);
+  }
+
+  /** Pages of a listing, recording that they were read and closed. */
+  private class ClosablePages implements Iterator<Collection<String>>, AutoCloseable {
+    private final Iterator<List<String>> pages;
+
+    private ClosablePages(List<List<String>> pagesInput) {
+      pages = pagesInput.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pages.hasNext();
+    }
+
+    @Override
+    public Collection<String> next() {
+      pagesRead++;
+      return pages.next();
+    }
+
+    @Override
+    public void close() {
+      sourceClosed = true;
+    }
+  }
+}
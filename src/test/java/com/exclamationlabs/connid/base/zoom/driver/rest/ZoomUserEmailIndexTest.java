@@ -0,0 +1,95 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZoomUserEmailIndexTest {
+
+  private long timeToLive;
+  private ZoomUserEmailIndex index;
+
+  @BeforeEach
+  public void setup() {
+    timeToLive = TimeUnit.MINUTES.toMillis(5);
+    index =
+        new ZoomUserEmailIndex(
+            new ZoomDriver() {
+              @Override
+              public long getCacheTimeToLiveMillis() {
+                return timeToLive;
+              }
+            });
+  }
+
+  private static ZoomUser user(String id, String email) {
+    ZoomUser user = new ZoomUser();
+    user.setId(id);
+    user.setEmail(email);
+    return user;
+  }
+
+  @Test
+  public void test100EmailIsComparedIgnoringCase() {
+    index.put(" Alice@Example.com ", "u1");
+    assertEquals("u1", index.getId("alice@example.COM"));
+    assertNull(index.getId("bob@example.com"));
+    assertNull(index.getId(" "));
+    assertNull(index.getId(null));
+  }
+
+  @Test
+  public void test110RenamedUserLosesOldEmail() {
+    index.put("alice@example.com", "u1");
+    index.put("alice.smith@example.com", "u1");
+    assertNull(index.getId("alice@example.com"));
+    assertEquals("u1", index.getId("alice.smith@example.com"));
+  }
+
+  @Test
+  public void test120EmailTakenOverByOtherUser() {
+    index.put("alice@example.com", "u1");
+    index.put("alice@example.com", "u2");
+    assertEquals("u2", index.getId("alice@example.com"));
+    // removing the former owner keeps the entry of the new one
+    index.remove("u1");
+    assertEquals("u2", index.getId("alice@example.com"));
+    index.remove("u2");
+    assertNull(index.getId("alice@example.com"));
+  }
+
+  @Test
+  public void test130ExpiredEmailIsUnknown() {
+    index.put("alice@example.com", "u1");
+    timeToLive = 0L;
+    assertNull(index.getId("alice@example.com"));
+    timeToLive = TimeUnit.MINUTES.toMillis(5);
+    assertNull(index.getId("alice@example.com"));
+  }
+
+  @Test
+  public void test140ListedUsersAreRecordedUntilInvalidated() {
+    index.putAll(
+        Arrays.asList(user("u1", "alice@example.com"), null, user("u2", null), user(null, "x@y")));
+    assertEquals("u1", index.getId("alice@example.com"));
+    assertNull(index.getId("x@y"));
+    index.invalidate();
+    assertNull(index.getId("alice@example.com"));
+  }
+}
@@ -0,0 +1,248 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.driver.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.exclamationlabs.connid.base.zoom.model.ZoomCallingPlan;
+import com.exclamationlabs.connid.base.zoom.model.ZoomFeature;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneNumber;
+import com.exclamationlabs.connid.base.zoom.model.ZoomPhoneUserProfile;
+import com.exclamationlabs.connid.base.zoom.model.ZoomUser;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class ZoomUserUpdatePlanTest {
+
+  @Test
+  public void test100NoChange() {
+    ZoomUser desired = new ZoomUser();
+    desired.setFirstName("Alfred");
+    desired.setLastName("Neuman");
+    desired.setEmail("Alfred@Mad.com ");
+    desired.setStatus("ACTIVE");
+    desired.setType(2);
+    desired.setGroupsToAdd(setOf("g1"));
+    desired.setGroupsToRemove(setOf("g9"));
+    ZoomPhoneUserProfile add = new ZoomPhoneUserProfile();
+    add.setPlans(setOf(200));
+    add.setPhones(setOf("+15555550100"));
+    desired.setOutboundAdd(add);
+    ZoomPhoneUserProfile remove = new ZoomPhoneUserProfile();
+    remove.setPlans(setOf(300));
+    remove.setPhones(setOf("+15555550199"));
+    desired.setOutboundRemove(remove);
+
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(desired, currentUser());
+    assertNull(plan.getProfileChanges());
+    assertNull(plan.getEmail());
+    assertNull(plan.getStatus());
+    assertTrue(plan.getGroupsToAdd().isEmpty());
+    assertTrue(plan.getGroupsToRemove().isEmpty());
+    assertFalse(plan.hasPhoneAssignmentChanges());
+  }
+
+  @Test
+  public void test110EmptyUpdate() {
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(new ZoomUser(), currentUser());
+    assertNull(plan.getProfileChanges());
+    assertNull(plan.getEmail());
+    assertNull(plan.getStatus());
+    assertTrue(plan.getGroupsToAdd().isEmpty());
+    assertTrue(plan.getGroupsToRemove().isEmpty());
+    assertFalse(plan.hasPhoneAssignmentChanges());
+  }
+
+  @Test
+  public void test200ProfileFieldChanges() {
+    ZoomUser desired = new ZoomUser();
+    desired.setFirstName("Alfred");
+    desired.setLastName("Smith");
+    desired.setLanguage("fr-FR");
+    desired.setTimezone("Europe/Paris");
+    desired.setType(1);
+    desired.setPhoneNumber("5555550123");
+    desired.setPhoneCountry("FR");
+    desired.setPersonalMeetingId(5825080949L);
+
+    ZoomUser changes = new ZoomUserUpdatePlan(desired, currentUser()).getProfileChanges();
+    assertNotNull(changes);
+    assertNull(changes.getFirstName());
+    assertEquals("Smith", changes.getLastName());
+    assertEquals("fr-FR", changes.getLanguage());
+    assertEquals("Europe/Paris", changes.getTimezone());
+    assertEquals(1, changes.getType());
+    assertEquals("5555550123", changes.getPhoneNumber());
+    assertEquals("FR", changes.getPhoneCountry());
+    assertEquals(5825080949L, changes.getPersonalMeetingId());
+    assertNull(changes.getPassword());
+    assertNull(changes.getFeature());
+  }
+
+  @Test
+  public void test210SingleFieldChange() {
+    ZoomUser desired = new ZoomUser();
+    desired.setTimezone("Europe/Paris");
+    ZoomUser changes = new ZoomUserUpdatePlan(desired, currentUser()).getProfileChanges();
+    assertNotNull(changes);
+    assertEquals("Europe/Paris", changes.getTimezone());
+    assertNull(changes.getFirstName());
+    assertNull(changes.getLastName());
+    assertNull(changes.getType());
+  }
+
+  @Test
+  public void test220PasswordAlwaysSent() {
+    ZoomUser desired = new ZoomUser();
+    desired.setPassword("secret");
+    ZoomUser changes = new ZoomUserUpdatePlan(desired, currentUser()).getProfileChanges();
+    assertNotNull(changes);
+    assertEquals("secret", changes.getPassword());
+  }
+
+  @Test
+  public void test230FeatureChanges() {
+    ZoomUser desired = new ZoomUser();
+    ZoomFeature feature = new ZoomFeature();
+    feature.setZoomPhone(true);
+    desired.setFeature(feature);
+    assertNull(new ZoomUserUpdatePlan(desired, currentUser()).getProfileChanges());
+
+    feature.setZoomPhone(false);
+    feature.setZoomOneType(16);
+    ZoomUser changes = new ZoomUserUpdatePlan(desired, currentUser()).getProfileChanges();
+    assertNotNull(changes);
+    assertFalse(changes.getFeature().getZoomPhone());
+    assertEquals(16, changes.getFeature().getZoomOneType());
+  }
+
+  @Test
+  public void test240EmailAndStatusChanges() {
+    ZoomUser desired = new ZoomUser();
+    desired.setEmail(" alfred.neuman@mad.com");
+    desired.setStatus("inactive");
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(desired, currentUser());
+    assertEquals("alfred.neuman@mad.com", plan.getEmail());
+    assertEquals("inactive", plan.getStatus());
+    assertNull(plan.getProfileChanges());
+  }
+
+  @Test
+  public void test300GroupChanges() {
+    ZoomUser desired = new ZoomUser();
+    desired.setGroupsToAdd(setOf("g1", "g3"));
+    desired.setGroupsToRemove(setOf("g2", "g4"));
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(desired, currentUser());
+    assertEquals(setOf("g3"), plan.getGroupsToAdd());
+    assertEquals(setOf("g2"), plan.getGroupsToRemove());
+  }
+
+  @Test
+  public void test310GroupChangesWithUnknownGroups() {
+    ZoomUser current = currentUser();
+    current.setGroupIds(null);
+    ZoomUser desired = new ZoomUser();
+    desired.setGroupsToAdd(setOf("g1"));
+    desired.setGroupsToRemove(setOf("g2"));
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(desired, current);
+    assertEquals(setOf("g1"), plan.getGroupsToAdd());
+    assertEquals(setOf("g2"), plan.getGroupsToRemove());
+  }
+
+  @Test
+  public void test400CallingPlanChanges() {
+    ZoomUser desired = new ZoomUser();
+    ZoomPhoneUserProfile add = new ZoomPhoneUserProfile();
+    add.setPlans(setOf(200, 201));
+    desired.setOutboundAdd(add);
+    ZoomPhoneUserProfile remove = new ZoomPhoneUserProfile();
+    remove.setPlans(setOf(200, 300));
+    desired.setOutboundRemove(remove);
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(desired, currentUser());
+    assertEquals(setOf(201), plan.getCallingPlansToAdd());
+    assertEquals(setOf(200), plan.getCallingPlansToRemove());
+    assertTrue(plan.getPhoneNumbersToAdd().isEmpty());
+    assertTrue(plan.getPhoneNumbersToRemove().isEmpty());
+    assertTrue(plan.hasPhoneAssignmentChanges());
+  }
+
+  @Test
+  public void test410PhoneNumberChanges() {
+    ZoomUser desired = new ZoomUser();
+    ZoomPhoneUserProfile add = new ZoomPhoneUserProfile();
+    add.setPhones(setOf("+15555550100", "+15555550101"));
+    desired.setOutboundAdd(add);
+    ZoomPhoneUserProfile remove = new ZoomPhoneUserProfile();
+    remove.setPhones(setOf("+15555550100", "+15555550199"));
+    desired.setOutboundRemove(remove);
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(desired, currentUser());
+    assertEquals(setOf("+15555550101"), plan.getPhoneNumbersToAdd());
+    assertEquals(setOf("+15555550100"), plan.getPhoneNumbersToRemove());
+    assertTrue(plan.getCallingPlansToAdd().isEmpty());
+    assertTrue(plan.getCallingPlansToRemove().isEmpty());
+    assertTrue(plan.hasPhoneAssignmentChanges());
+  }
+
+  @Test
+  public void test420PhoneChangesWithUnknownProfile() {
+    ZoomUser current = currentUser();
+    current.setPhoneProfile(null);
+    ZoomUser desired = new ZoomUser();
+    ZoomPhoneUserProfile add = new ZoomPhoneUserProfile();
+    add.setPlans(setOf(200));
+    add.setPhones(setOf("+15555550100"));
+    desired.setOutboundAdd(add);
+    ZoomPhoneUserProfile remove = new ZoomPhoneUserProfile();
+    remove.setPlans(setOf(300));
+    desired.setOutboundRemove(remove);
+    ZoomUserUpdatePlan plan = new ZoomUserUpdatePlan(desired, current);
+    assertEquals(setOf(200), plan.getCallingPlansToAdd());
+    assertEquals(setOf(300), plan.getCallingPlansToRemove());
+    assertEquals(setOf("+15555550100"), plan.getPhoneNumbersToAdd());
+  }
+
+  private static ZoomUser currentUser() {
+    ZoomUser user = new ZoomUser();
+    user.setId("ZpRAY4X9SEipRS9kS--Img");
+    user.setFirstName("Alfred");
+    user.setLastName("Neuman");
+    user.setEmail("alfred@mad.com");
+    user.setStatus("active");
+    user.setType(2);
+    user.setLanguage("en-US");
+    user.setTimezone("America/Chicago");
+    user.setPersonalMeetingId(5825080948L);
+    user.setGroupIds(setOf("g1", "g2"));
+    ZoomFeature feature = new ZoomFeature();
+    feature.setZoomPhone(true);
+    user.setFeature(feature);
+
+    ZoomCallingPlan plan = new ZoomCallingPlan();
+    plan.setType(200);
+    ZoomPhoneNumber number = new ZoomPhoneNumber();
+    number.setNumber("+15555550100");
+    ZoomPhoneUserProfile profile = new ZoomPhoneUserProfile();
+    profile.setCallingPlans(Collections.singleton(plan));
+    profile.setPhoneNumbers(Collections.singleton(number));
+    user.setPhoneProfile(profile);
+    return user;
+  }
+
+  @SafeVarargs
+  private static <T> Set<T> setOf(T... values) {
+    return new HashSet<>(Arrays.asList(values));
+  }
+}
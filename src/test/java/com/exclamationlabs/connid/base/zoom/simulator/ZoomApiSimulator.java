@@ -0,0 +1,614 @@
+/*
+    Copyright 2020 Exclamation Labs
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+        http://www.apache.org/licenses/LICENSE-2.0
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.exclamationlabs.connid.base.zoom.simulator;
+
+import com.exclamationlabs.connid.base.zoom.driver.rest.ZoomApiEndpoint;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-process stand-in for the Zoom API, serving the users, groups, group members, phone users and
+ * phone sites endpoints used by the connector from a generated tenant. Listings are paged with
+ * next_page_token. Each endpoint can be given a latency, and every n-th request can be answered
+ * with 429 to exercise throttling. Point the connector at {@link #getServiceUrl()} to run it
+ * against the simulator instead of Zoom.
+ */
+public class ZoomApiSimulator implements AutoCloseable {
+
+  private static final int MAX_PAGE_SIZE = 300;
+  private static final String[] STATUSES = {"active", "active", "active", "inactive", "pending"};
+
+  private final Gson gson = new Gson();
+  private final Map<String, SimulatedUser> usersById = new LinkedHashMap<>();
+  private final Map<String, SimulatedUser> usersByEmail = new HashMap<>();
+  private final Map<String, SimulatedGroup> groupsById = new LinkedHashMap<>();
+  private final List<SimulatedSite> sites = new ArrayList<>();
+  private final Map<String, Long> latencyMillis = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+  private final AtomicInteger receivedCount = new AtomicInteger();
+  private final AtomicInteger throttledCount = new AtomicInteger();
+  private final Random random;
+
+  private volatile long defaultLatencyMillis = 0L;
+  private volatile int throttleInterval = 0;
+  private volatile int retryAfterSeconds = 1;
+  private int nextId = 0;
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * Generates a tenant. About a fifth of the users are inactive or pending, users belong to up to
+   * three groups, and every third active user has Zoom Phone.
+   *
+   * @param userCount Number of users of the tenant
+   * @param groupCount Number of groups of the tenant
+   * @param siteCount Number of Zoom Phone sites of the tenant
+   * @param seed Seed of the generated tenant
+   */
+  public ZoomApiSimulator(int userCount, int groupCount, int siteCount, long seed) {
+    random = new Random(seed);
+    for (int i = 0; i < siteCount; i++) {
+      sites.add(new SimulatedSite(newId(), "Site " + i, 100 + i));
+    }
+    for (int i = 0; i < groupCount; i++) {
+      SimulatedGroup group = new SimulatedGroup(newId(), "Group " + i);
+      groupsById.put(group.id, group);
+    }
+    List<SimulatedGroup> groups = new ArrayList<>(groupsById.values());
+    for (int i = 0; i < userCount; i++) {
+      SimulatedUser user = addUser("user" + i + "@example.com", "First" + i, "Last" + i, 1);
+      user.status = STATUSES[random.nextInt(STATUSES.length)];
+      for (int g = random.nextInt(4); g > 0 && !groups.isEmpty(); g--) {
+        SimulatedGroup group = groups.get(random.nextInt(groups.size()));
+        group.memberIds.add(user.id);
+        user.groupIds.add(group.id);
+      }
+      if (!sites.isEmpty() && "active".equals(user.status) && i % 3 == 0) {
+        user.extension = String.valueOf(1000 + i);
+        user.site = sites.get(random.nextInt(sites.size()));
+      }
+    }
+  }
+
+  /**
+   * Starts serving requests on a free local port.
+   *
+   * @param threads Number of requests served concurrently
+   * @return This simulator
+   */
+  public ZoomApiSimulator start(int threads) throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    executor = Executors.newFixedThreadPool(threads);
+    server.setExecutor(executor);
+    server.createContext("/v2/", this::handle);
+    server.start();
+    return this;
+  }
+
+  /** @return Service url to set in the connector configuration */
+  public String getServiceUrl() {
+    return "http://"
+        + server.getAddress().getHostString()
+        + ":"
+        + server.getAddress().getPort()
+        + "/v2";
+  }
+
+  /**
+   * @param millis Latency added to every request without a latency of its own
+   * @return This simulator
+   */
+  public ZoomApiSimulator withLatency(long millis) {
+    defaultLatencyMillis = millis;
+    return this;
+  }
+
+  /**
+   * @param template Endpoint template such as "GET /users/{id}"
+   * @param millis Latency added to the requests of this endpoint
+   * @return This simulator
+   */
+  public ZoomApiSimulator withLatency(String template, long millis) {
+    latencyMillis.put(template, millis);
+    return this;
+  }
+
+  /**
+   * @param interval Every interval-th request is answered with 429, 0 to disable throttling
+   * @param retryAfter Value of the Retry-After header of the 429 responses, in seconds
+   * @return This simulator
+   */
+  public ZoomApiSimulator withThrottling(int interval, int retryAfter) {
+    throttleInterval = interval;
+    retryAfterSeconds = retryAfter;
+    return this;
+  }
+
+  /** @return Number of requests received for the endpoint, including throttled ones */
+  public int getRequestCount(String template) {
+    AtomicInteger count = requestCounts.get(template);
+    return count == null ? 0 : count.get();
+  }
+
+  /** @return Number of requests received for all endpoints */
+  public int getRequestCount() {
+    return requestCounts.values().stream().mapToInt(AtomicInteger::get).sum();
+  }
+
+  /** @return Number of requests answered with 429 */
+  public int getThrottledCount() {
+    return throttledCount.get();
+  }
+
+  /** @return Number of users of the tenant with the given status */
+  public synchronized int getUserCount(String status) {
+    return (int) usersById.values().stream().filter(u -> u.status.equals(status)).count();
+  }
+
+  /** @return Number of users of the tenant that have Zoom Phone */
+  public synchronized int getPhoneUserCount() {
+    return (int) usersById.values().stream().filter(SimulatedUser::hasPhone).count();
+  }
+
+  /** @return Ids of the members of the group */
+  public synchronized Set<String> getMemberIds(String groupId) {
+    SimulatedGroup group = groupsById.get(groupId);
+    return group == null ? Set.of() : new LinkedHashSet<>(group.memberIds);
+  }
+
+  /** @return Ids of the groups of the tenant */
+  public synchronized Set<String> getGroupIds() {
+    return new LinkedHashSet<>(groupsById.keySet());
+  }
+
+  /** Deletes a user as if it were deleted outside of the connector. */
+  public synchronized void deleteUser(String userId) {
+    SimulatedUser user = usersById.get(userId);
+    if (user != null) {
+      removeUser(user);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (server != null) {
+      server.stop(0);
+      executor.shutdownNow();
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      String method = exchange.getRequestMethod();
+      String path = exchange.getRequestURI().getRawPath();
+      String template = ZoomApiEndpoint.getTemplate(method, path);
+      requestCounts.computeIfAbsent(template, t -> new AtomicInteger()).incrementAndGet();
+      delay(latencyMillis.getOrDefault(template, defaultLatencyMillis));
+      int interval = throttleInterval;
+      if (interval > 0 && receivedCount.incrementAndGet() % interval == 0) {
+        throttledCount.incrementAndGet();
+        exchange
+            .getResponseHeaders()
+            .add(
+                "X-RateLimit-Category",
+                ZoomApiEndpoint.getDefaultCategory(template).name().charAt(0)
+                    + ZoomApiEndpoint.getDefaultCategory(template)
+                        .name()
+                        .substring(1)
+                        .toLowerCase());
+        exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+        send(exchange, 429, error(429, "You have reached the maximum per-second rate limit."));
+        return;
+      }
+      String[] segments = path.substring("/v2/".length()).split("/");
+      Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+      JsonObject body = readBody(exchange);
+      Response response;
+      synchronized (this) {
+        response = route(template, segments, query, body);
+      }
+      send(exchange, response.status, response.body);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Response route(
+      String template, String[] segments, Map<String, String> query, JsonObject body) {
+    switch (template) {
+      case "GET /users":
+        String status = query.getOrDefault("status", "active");
+        return page(query, "users", usersById.values(), u -> u.status.equals(status), this::toJson);
+      case "GET /users/{id}":
+        return findUser(segments[1], user -> new Response(200, toJson(user)));
+      case "POST /users":
+        return createUser(body);
+      case "PATCH /users/{id}":
+        return findUser(
+            segments[1],
+            user -> {
+              if (body != null && body.has("first_name")) {
+                user.firstName = body.get("first_name").getAsString();
+              }
+              if (body != null && body.has("last_name")) {
+                user.lastName = body.get("last_name").getAsString();
+              }
+              return new Response(204, null);
+            });
+      case "PUT /users/{id}/status":
+        return findUser(
+            segments[1],
+            user -> {
+              String action = body == null ? null : body.get("action").getAsString();
+              user.status = "deactivate".equals(action) ? "inactive" : "active";
+              return new Response(204, null);
+            });
+      case "DELETE /users/{id}":
+        return findUser(
+            segments[1],
+            user -> {
+              removeUser(user);
+              return new Response(204, null);
+            });
+      case "GET /groups":
+        return page(query, "groups", groupsById.values(), g -> true, this::toJson);
+      case "GET /groups/{id}":
+        return findGroup(segments[1], group -> new Response(200, toJson(group)));
+      case "GET /groups/{id}/members":
+        return findGroup(
+            segments[1],
+            group -> {
+              List<SimulatedUser> members = new ArrayList<>();
+              group.memberIds.forEach(id -> members.add(usersById.get(id)));
+              return page(query, "members", members, u -> true, this::toJson);
+            });
+      case "POST /groups/{id}/members":
+        return findGroup(segments[1], group -> addMembers(group, body));
+      case "DELETE /groups/{id}/members/{id}":
+        return findGroup(
+            segments[1],
+            group ->
+                findUser(
+                    segments[3],
+                    user -> {
+                      group.memberIds.remove(user.id);
+                      user.groupIds.remove(group.id);
+                      return new Response(204, null);
+                    }));
+      case "GET /phone/users":
+        return page(
+            query, "users", usersById.values(), SimulatedUser::hasPhone, this::toPhoneListJson);
+      case "GET /phone/users/{id}":
+        return findUser(
+            segments[2],
+            user ->
+                user.hasPhone()
+                    ? new Response(200, toPhoneProfileJson(user))
+                    : new Response(404, error(1001, "User does not exist: " + segments[2])));
+      case "GET /phone/sites":
+        return page(query, "sites", sites, s -> true, this::toJson);
+      default:
+        return new Response(404, error(404, "Not simulated: " + template));
+    }
+  }
+
+  /** Returns the page of the matching items starting at the offset held by next_page_token. */
+  private <T> Response page(
+      Map<String, String> query,
+      String name,
+      Iterable<T> items,
+      Predicate<T> filter,
+      Function<T, JsonObject> toJson) {
+    int pageSize = MAX_PAGE_SIZE;
+    if (query.containsKey("page_size")) {
+      pageSize = Math.min(Math.max(Integer.parseInt(query.get("page_size")), 1), MAX_PAGE_SIZE);
+    }
+    int offset = 0;
+    if (query.containsKey("next_page_token")) {
+      offset = Integer.parseInt(query.get("next_page_token").substring(1), Character.MAX_RADIX);
+    }
+    JsonArray pageItems = new JsonArray();
+    int total = 0;
+    for (T item : items) {
+      if (filter.test(item)) {
+        if (total >= offset && total < offset + pageSize) {
+          pageItems.add(toJson.apply(item));
+        }
+        total++;
+      }
+    }
+    JsonObject page = new JsonObject();
+    page.addProperty("page_size", pageSize);
+    page.addProperty("total_records", total);
+    page.addProperty(
+        "next_page_token",
+        offset + pageSize < total
+            ? "o" + Integer.toString(offset + pageSize, Character.MAX_RADIX)
+            : "");
+    page.add(name, pageItems);
+    return new Response(200, page);
+  }
+
+  private Response findUser(String idOrEmail, Function<SimulatedUser, Response> found) {
+    String key = URLDecoder.decode(idOrEmail, StandardCharsets.UTF_8);
+    SimulatedUser user = usersById.get(key);
+    if (user == null) {
+      user = usersByEmail.get(key.toLowerCase());
+    }
+    return user == null
+        ? new Response(404, error(1001, "User does not exist: " + key))
+        : found.apply(user);
+  }
+
+  private Response findGroup(String groupId, Function<SimulatedGroup, Response> found) {
+    SimulatedGroup group = groupsById.get(groupId);
+    return group == null
+        ? new Response(404, error(4130, "A group with this " + groupId + " does not exist."))
+        : found.apply(group);
+  }
+
+  private Response createUser(JsonObject body) {
+    JsonObject info = body == null ? null : body.getAsJsonObject("user_info");
+    if (info == null || !info.has("email")) {
+      return new Response(400, error(300, "Validation Failed."));
+    }
+    String email = info.get("email").getAsString();
+    if (usersByEmail.containsKey(email.toLowerCase())) {
+      return new Response(409, error(1005, "User already in the account: " + email));
+    }
+    SimulatedUser user =
+        addUser(
+            email,
+            info.has("first_name") ? info.get("first_name").getAsString() : null,
+            info.has("last_name") ? info.get("last_name").getAsString() : null,
+            info.has("type") ? info.get("type").getAsInt() : 1);
+    user.status = "pending";
+    return new Response(201, toJson(user));
+  }
+
+  private Response addMembers(SimulatedGroup group, JsonObject body) {
+    List<String> added = new ArrayList<>();
+    if (body != null && body.has("members")) {
+      for (JsonElement member : body.getAsJsonArray("members")) {
+        JsonObject memberObject = member.getAsJsonObject();
+        SimulatedUser user =
+            memberObject.has("id")
+                ? usersById.get(memberObject.get("id").getAsString())
+                : usersByEmail.get(memberObject.get("email").getAsString().toLowerCase());
+        if (user != null && group.memberIds.add(user.id)) {
+          user.groupIds.add(group.id);
+          added.add(user.id);
+        }
+      }
+    }
+    JsonObject response = new JsonObject();
+    response.addProperty("ids", String.join(",", added));
+    response.addProperty("added_at", Instant.now().toString());
+    return new Response(201, response);
+  }
+
+  private void removeUser(SimulatedUser user) {
+    usersById.remove(user.id);
+    usersByEmail.remove(user.email.toLowerCase());
+    user.groupIds.forEach(id -> groupsById.get(id).memberIds.remove(user.id));
+  }
+
+  private SimulatedUser addUser(String email, String firstName, String lastName, int type) {
+    SimulatedUser user = new SimulatedUser(newId(), email, firstName, lastName, type);
+    usersById.put(user.id, user);
+    usersByEmail.put(email.toLowerCase(), user);
+    return user;
+  }
+
+  private String newId() {
+    return String.format("sim%08d%s", nextId++, Integer.toString(random.nextInt(), 36));
+  }
+
+  private JsonObject toJson(SimulatedUser user) {
+    JsonObject json = new JsonObject();
+    json.addProperty("id", user.id);
+    json.addProperty("email", user.email);
+    json.addProperty("first_name", user.firstName);
+    json.addProperty("last_name", user.lastName);
+    json.addProperty("type", user.type);
+    json.addProperty("status", user.status);
+    json.addProperty("timezone", "America/Chicago");
+    json.addProperty("language", "en-US");
+    json.addProperty("created_at", "2024-01-01T00:00:00Z");
+    json.add("group_ids", gson.toJsonTree(user.groupIds));
+    JsonObject feature = new JsonObject();
+    feature.addProperty("zoom_phone", user.hasPhone());
+    json.add("feature", feature);
+    return json;
+  }
+
+  private JsonObject toJson(SimulatedGroup group) {
+    JsonObject json = new JsonObject();
+    json.addProperty("id", group.id);
+    json.addProperty("name", group.name);
+    json.addProperty("total_members", group.memberIds.size());
+    return json;
+  }
+
+  private JsonObject toJson(SimulatedSite site) {
+    JsonObject json = new JsonObject();
+    json.addProperty("id", site.id);
+    json.addProperty("name", site.name);
+    json.addProperty("site_code", site.code);
+    return json;
+  }
+
+  private JsonObject toPhoneListJson(SimulatedUser user) {
+    JsonObject json = toPhoneProfileJson(user);
+    json.remove("site_id");
+    json.add("site", toJson(user.site));
+    return json;
+  }
+
+  private JsonObject toPhoneProfileJson(SimulatedUser user) {
+    JsonObject json = new JsonObject();
+    json.addProperty("id", user.id);
+    json.addProperty("email", user.email);
+    json.addProperty("extension_number", user.extension);
+    json.addProperty("site_id", user.site.id);
+    json.addProperty("status", "activate");
+    json.add("calling_plans", new JsonArray());
+    json.add("phone_numbers", new JsonArray());
+    return json;
+  }
+
+  private static JsonObject error(int code, String message) {
+    JsonObject json = new JsonObject();
+    json.addProperty("code", code);
+    json.addProperty("message", message);
+    return json;
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> query = new HashMap<>();
+    if (rawQuery != null) {
+      for (String parameter : rawQuery.split("&")) {
+        int separator = parameter.indexOf('=');
+        if (separator > 0) {
+          query.put(
+              parameter.substring(0, separator),
+              URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return query;
+  }
+
+  private static JsonObject readBody(HttpExchange exchange) throws IOException {
+    try (InputStream input = exchange.getRequestBody()) {
+      String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+      if (body.isBlank()) {
+        return null;
+      }
+      JsonElement json = JsonParser.parseString(body);
+      return json.isJsonObject() ? json.getAsJsonObject() : null;
+    }
+  }
+
+  private static void send(HttpExchange exchange, int status, JsonObject body) throws IOException {
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+
+  private static void delay(long millis) {
+    if (millis > 0) {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static final class Response {
+    private final int status;
+    private final JsonObject body;
+
+    private Response(int statusInput, JsonObject bodyInput) {
+      status = statusInput;
+      body = bodyInput;
+    }
+  }
+
+  private static final class SimulatedUser {
+    private final String id;
+    private final String email;
+    private final int type;
+    private final Set<String> groupIds = new LinkedHashSet<>();
+    private String firstName;
+    private String lastName;
+    private String status = "active";
+    private String extension;
+    private SimulatedSite site;
+
+    private SimulatedUser(
+        String idInput,
+        String emailInput,
+        String firstNameInput,
+        String lastNameInput,
+        int typeInput) {
+      id = idInput;
+      email = emailInput;
+      firstName = firstNameInput;
+      lastName = lastNameInput;
+      type = typeInput;
+    }
+
+    private boolean hasPhone() {
+      return site != null;
+    }
+  }
+
+  private static final class SimulatedGroup {
+    private final String id;
+    private final String name;
+    private final Set<String> memberIds = new LinkedHashSet<>();
+
+    private SimulatedGroup(String idInput, String nameInput) {
+      id = idInput;
+      name = nameInput;
+    }
+  }
+
+  private static final class SimulatedSite {
+    private final String id;
+    private final String name;
+    private final int code;
+
+    private SimulatedSite(String idInput, String nameInput, int codeInput) {
+      id = idInput;
+      name = nameInput;
+      code = codeInput;
+    }
+  }
+}